@@ -1,5 +1,9 @@
 package com.hcmus.chemistry.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,7 +14,400 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final ViewCounter viewCounter = new ViewCounter();
+
+    private final ImageCache imageCache = new ImageCache();
+
+    private final ImageUpload imageUpload = new ImageUpload();
+
+    private final ImageVariants imageVariants = new ImageVariants();
+
+    private final ImageStore imageStore = new ImageStore();
+
+    private final Storage storage = new Storage();
+
+    private final Homepage homepage = new Homepage();
+
+    private final Publication publication = new Publication();
+
     // jhipster-needle-application-properties-property
+
+    public ViewCounter getViewCounter() {
+        return viewCounter;
+    }
+
+    public ImageCache getImageCache() {
+        return imageCache;
+    }
+
+    public ImageUpload getImageUpload() {
+        return imageUpload;
+    }
+
+    public ImageVariants getImageVariants() {
+        return imageVariants;
+    }
+
+    public ImageStore getImageStore() {
+        return imageStore;
+    }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public Homepage getHomepage() {
+        return homepage;
+    }
+
+    public Publication getPublication() {
+        return publication;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class ViewCounter {
+
+        /**
+         * Delay in milliseconds between two flushes of the buffered blog post views.
+         */
+        private long flushInterval = 5000;
+
+        /**
+         * Maximum number of blog posts with buffered views, the views of other blog posts are dropped until the next flush.
+         */
+        private int maxPendingBlogPosts = 10_000;
+
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public int getMaxPendingBlogPosts() {
+            return maxPendingBlogPosts;
+        }
+
+        public void setMaxPendingBlogPosts(int maxPendingBlogPosts) {
+            this.maxPendingBlogPosts = maxPendingBlogPosts;
+        }
+    }
+
+    public static class ImageCache {
+
+        /**
+         * Maximum number of bytes of images held in memory.
+         */
+        private long maxBytes = 64L * 1024 * 1024;
+
+        /**
+         * Images bigger than this number of bytes are always read from the disk.
+         */
+        private long maxEntryBytes = 1024L * 1024;
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public long getMaxEntryBytes() {
+            return maxEntryBytes;
+        }
+
+        public void setMaxEntryBytes(long maxEntryBytes) {
+            this.maxEntryBytes = maxEntryBytes;
+        }
+    }
+
+    public static class ImageUpload {
+
+        /**
+         * Maximum size in bytes of an uploaded image.
+         */
+        private long maxBytes = 10L * 1024 * 1024;
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+
+    public static class ImageVariants {
+
+        /**
+         * Widths in pixels of the variants generated for each uploaded image.
+         */
+        private List<Integer> widths = new ArrayList<>(Arrays.asList(320, 640, 1024));
+
+        /**
+         * Number of threads generating the variants.
+         */
+        private int poolSize = 2;
+
+        /**
+         * Maximum number of images waiting for their variants to be generated, further ones are generated when next requested.
+         */
+        private int queueCapacity = 100;
+
+        /**
+         * Maximum number of pixels of an image to resize, larger images are always served as uploaded.
+         * Decoding takes 4 bytes per pixel, whatever the size of the file.
+         */
+        private long maxPixels = 40_000_000;
+
+        public List<Integer> getWidths() {
+            return widths;
+        }
+
+        public void setWidths(List<Integer> widths) {
+            this.widths = widths;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getMaxPixels() {
+            return maxPixels;
+        }
+
+        public void setMaxPixels(long maxPixels) {
+            this.maxPixels = maxPixels;
+        }
+    }
+
+    public static class ImageStore {
+
+        /**
+         * Cron expression of the garbage collection of the unreferenced images.
+         */
+        private String gcCron = "0 0 3 * * ?";
+
+        /**
+         * Unreferenced images uploaded more recently are kept, as the blog post or banner using them may not be saved yet.
+         */
+        private Duration gcGracePeriod = Duration.ofDays(1);
+
+        public String getGcCron() {
+            return gcCron;
+        }
+
+        public void setGcCron(String gcCron) {
+            this.gcCron = gcCron;
+        }
+
+        public Duration getGcGracePeriod() {
+            return gcGracePeriod;
+        }
+
+        public void setGcGracePeriod(Duration gcGracePeriod) {
+            this.gcGracePeriod = gcGracePeriod;
+        }
+    }
+
+    public static class Storage {
+
+        /**
+         * Backend storing the uploaded files: {@code local} or {@code s3}.
+         */
+        private String type = "local";
+
+        private final Local local = new Local();
+
+        private final S3 s3 = new S3();
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public Local getLocal() {
+            return local;
+        }
+
+        public S3 getS3() {
+            return s3;
+        }
+
+        public static class Local {
+
+            /**
+             * Directory of the uploaded files, relative to the working directory.
+             */
+            private String directory = "upload";
+
+            public String getDirectory() {
+                return directory;
+            }
+
+            public void setDirectory(String directory) {
+                this.directory = directory;
+            }
+        }
+
+        public static class S3 {
+
+            /**
+             * Endpoint of the S3-compatible service, e.g. {@code https://s3.eu-west-1.amazonaws.com} or {@code http://localhost:9000}.
+             */
+            private String endpoint;
+
+            private String region = "us-east-1";
+
+            private String bucket;
+
+            private String accessKey;
+
+            private String secretKey;
+
+            /**
+             * Whether image requests are redirected to presigned URLs, so the image bytes do not go through the application.
+             */
+            private boolean redirect = true;
+
+            /**
+             * Validity of the presigned URLs.
+             */
+            private Duration presignedUrlTtl = Duration.ofMinutes(15);
+
+            /**
+             * Maximum time to wait for the response to a request to the service, including the upload of a blob.
+             */
+            private Duration requestTimeout = Duration.ofSeconds(30);
+
+            public String getEndpoint() {
+                return endpoint;
+            }
+
+            public void setEndpoint(String endpoint) {
+                this.endpoint = endpoint;
+            }
+
+            public String getRegion() {
+                return region;
+            }
+
+            public void setRegion(String region) {
+                this.region = region;
+            }
+
+            public String getBucket() {
+                return bucket;
+            }
+
+            public void setBucket(String bucket) {
+                this.bucket = bucket;
+            }
+
+            public String getAccessKey() {
+                return accessKey;
+            }
+
+            public void setAccessKey(String accessKey) {
+                this.accessKey = accessKey;
+            }
+
+            public String getSecretKey() {
+                return secretKey;
+            }
+
+            public void setSecretKey(String secretKey) {
+                this.secretKey = secretKey;
+            }
+
+            public boolean isRedirect() {
+                return redirect;
+            }
+
+            public void setRedirect(boolean redirect) {
+                this.redirect = redirect;
+            }
+
+            public Duration getPresignedUrlTtl() {
+                return presignedUrlTtl;
+            }
+
+            public void setPresignedUrlTtl(Duration presignedUrlTtl) {
+                this.presignedUrlTtl = presignedUrlTtl;
+            }
+
+            public Duration getRequestTimeout() {
+                return requestTimeout;
+            }
+
+            public void setRequestTimeout(Duration requestTimeout) {
+                this.requestTimeout = requestTimeout;
+            }
+        }
+    }
+
+    public static class Homepage {
+
+        /**
+         * Delay in milliseconds between two rebuilds of the homepage, besides the rebuilds after each change of its content.
+         */
+        private long refreshInterval = 60000;
+
+        /**
+         * Number of latest blog posts shown for each homepage category.
+         */
+        private int postsPerCategory = 6;
+
+        public long getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(long refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public int getPostsPerCategory() {
+            return postsPerCategory;
+        }
+
+        public void setPostsPerCategory(int postsPerCategory) {
+            this.postsPerCategory = postsPerCategory;
+        }
+    }
+
+    public static class Publication {
+
+        /**
+         * Delay in milliseconds between two checks for blog posts to publish, besides the one timed at the next publication.
+         */
+        private long checkInterval = 60000;
+
+        public long getCheckInterval() {
+            return checkInterval;
+        }
+
+        public void setCheckInterval(long checkInterval) {
+            this.checkInterval = checkInterval;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -45,6 +45,12 @@ public class CacheConfiguration {
         return cm -> {
             createCache(cm, com.hcmus.chemistry.repository.UserRepository.USERS_BY_LOGIN_CACHE);
             createCache(cm, com.hcmus.chemistry.repository.UserRepository.USERS_BY_EMAIL_CACHE);
+            createCache(cm, com.hcmus.chemistry.repository.CategoryRepository.HOMEPAGE_CATEGORIES_CACHE);
+            createCache(cm, com.hcmus.chemistry.repository.BlogPostRepository.LATEST_BY_CATEGORIES_CACHE);
+            createCache(cm, com.hcmus.chemistry.repository.BlogPostRepository.COUNT_BY_CRITERIA_CACHE);
+            createCache(cm, com.hcmus.chemistry.repository.BlogPostRepository.ID_BY_SLUG_CACHE);
+            createCache(cm, com.hcmus.chemistry.repository.CategoryRepository.COUNT_BY_CRITERIA_CACHE);
+            createCache(cm, com.hcmus.chemistry.repository.BannerRepository.COUNT_BY_CRITERIA_CACHE);
             createCache(cm, com.hcmus.chemistry.domain.User.class.getName());
             createCache(cm, com.hcmus.chemistry.domain.Authority.class.getName());
             createCache(cm, com.hcmus.chemistry.domain.User.class.getName() + ".authorities");
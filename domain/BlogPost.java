@@ -1,5 +1,6 @@
 package com.hcmus.chemistry.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.hcmus.chemistry.domain.enumeration.CurrentStatus;
 import java.io.Serializable;
@@ -52,7 +53,7 @@ public class BlogPost implements Serializable {
     @Column(name = "blog_post_author")
     private String blogPostAuthor;
 
-    @Column(name = "blog_post_slug")
+    @Column(name = "blog_post_slug", unique = true)
     private String blogPostSlug;
 
     @Column(name = "time_to_publish")
@@ -81,6 +82,26 @@ public class BlogPost implements Serializable {
     @JsonIgnoreProperties(value = { "blogPosts", "subCategories", "parentCategory" }, allowSetters = true)
     private Category category;
 
+    /**
+     * Plain, accent-folded, lower-cased text of {@link #blogPostTitleVi}.
+     */
+    @JsonIgnore
+    @Column(name = "blog_post_title_plain_vi")
+    private String blogPostTitlePlainVi;
+
+    /**
+     * Plain, accent-folded, lower-cased text of {@link #blogPostTitleEn}.
+     */
+    @JsonIgnore
+    @Column(name = "blog_post_title_plain_en")
+    private String blogPostTitlePlainEn;
+
+    /**
+     * Whether the {@link #timeToPublish} has come, so readers filter on this flag instead of comparing times.
+     */
+    @Column(name = "published", nullable = false)
+    private Boolean published;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -317,6 +338,45 @@ public class BlogPost implements Serializable {
         return this;
     }
 
+    public String getBlogPostTitlePlainVi() {
+        return this.blogPostTitlePlainVi;
+    }
+
+    public BlogPost blogPostTitlePlainVi(String blogPostTitlePlainVi) {
+        this.setBlogPostTitlePlainVi(blogPostTitlePlainVi);
+        return this;
+    }
+
+    public void setBlogPostTitlePlainVi(String blogPostTitlePlainVi) {
+        this.blogPostTitlePlainVi = blogPostTitlePlainVi;
+    }
+
+    public String getBlogPostTitlePlainEn() {
+        return this.blogPostTitlePlainEn;
+    }
+
+    public BlogPost blogPostTitlePlainEn(String blogPostTitlePlainEn) {
+        this.setBlogPostTitlePlainEn(blogPostTitlePlainEn);
+        return this;
+    }
+
+    public void setBlogPostTitlePlainEn(String blogPostTitlePlainEn) {
+        this.blogPostTitlePlainEn = blogPostTitlePlainEn;
+    }
+
+    public Boolean getPublished() {
+        return this.published;
+    }
+
+    public BlogPost published(Boolean published) {
+        this.setPublished(published);
+        return this;
+    }
+
+    public void setPublished(Boolean published) {
+        this.published = published;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -357,6 +417,7 @@ public class BlogPost implements Serializable {
             ", modifiedBy='" + getModifiedBy() + "'" +
             ", createdBy='" + getCreatedBy() + "'" +
             ", numberOfViews=" + getNumberOfViews() +
+            ", published='" + getPublished() + "'" +
             "}";
     }
 }
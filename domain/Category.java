@@ -45,6 +45,18 @@ public class Category implements Serializable {
     @Column(name = "created_time")
     private ZonedDateTime createdTime;
 
+    /**
+     * Whether the category has a section on the homepage.
+     */
+    @Column(name = "featured")
+    private Boolean featured;
+
+    /**
+     * Order of the section of the category on the homepage, the lowest first.
+     */
+    @Column(name = "homepage_position")
+    private Integer homepagePosition;
+
     @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, orphanRemoval = true)
     @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnoreProperties(value = { "category" }, allowSetters = true)
@@ -139,6 +151,32 @@ public class Category implements Serializable {
         this.createdTime = createdTime;
     }
 
+    public Boolean getFeatured() {
+        return this.featured;
+    }
+
+    public Category featured(Boolean featured) {
+        this.setFeatured(featured);
+        return this;
+    }
+
+    public void setFeatured(Boolean featured) {
+        this.featured = featured;
+    }
+
+    public Integer getHomepagePosition() {
+        return this.homepagePosition;
+    }
+
+    public Category homepagePosition(Integer homepagePosition) {
+        this.setHomepagePosition(homepagePosition);
+        return this;
+    }
+
+    public void setHomepagePosition(Integer homepagePosition) {
+        this.homepagePosition = homepagePosition;
+    }
+
     public Set<BlogPost> getBlogPosts() {
         return this.blogPosts;
     }
@@ -243,6 +281,8 @@ public class Category implements Serializable {
             ", categoryStatus='" + getCategoryStatus() + "'" +
             ", createdBy='" + getCreatedBy() + "'" +
             ", createdTime='" + getCreatedTime() + "'" +
+            ", featured='" + getFeatured() + "'" +
+            ", homepagePosition=" + getHomepagePosition() +
             "}";
     }
 }
@@ -0,0 +1,67 @@
+package com.hcmus.chemistry.domain.dto;
+
+public class BlogPostSearchResultDTO {
+
+    private Long id;
+
+    private String blogPostTitleVi;
+
+    private String blogPostTitleEn;
+
+    private String blogPostSlug;
+
+    private String thumbnailLink;
+
+    /**
+     * Excerpt of the matching text, HTML-escaped, with the matching words wrapped in {@code <mark>} tags.
+     */
+    private String snippet;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getBlogPostTitleVi() {
+        return blogPostTitleVi;
+    }
+
+    public void setBlogPostTitleVi(String blogPostTitleVi) {
+        this.blogPostTitleVi = blogPostTitleVi;
+    }
+
+    public String getBlogPostTitleEn() {
+        return blogPostTitleEn;
+    }
+
+    public void setBlogPostTitleEn(String blogPostTitleEn) {
+        this.blogPostTitleEn = blogPostTitleEn;
+    }
+
+    public String getBlogPostSlug() {
+        return blogPostSlug;
+    }
+
+    public void setBlogPostSlug(String blogPostSlug) {
+        this.blogPostSlug = blogPostSlug;
+    }
+
+    public String getThumbnailLink() {
+        return thumbnailLink;
+    }
+
+    public void setThumbnailLink(String thumbnailLink) {
+        this.thumbnailLink = thumbnailLink;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+}
@@ -0,0 +1,77 @@
+package com.hcmus.chemistry.domain.dto;
+
+import com.hcmus.chemistry.domain.enumeration.CurrentStatus;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A category of the category tree, with its subcategories.
+ * <p>
+ * Nodes are shared by every reader of the tree, hence immutable.
+ */
+public final class CategoryTreeNodeDTO {
+
+    private final Long id;
+
+    private final String categoryName;
+
+    private final String categorySlug;
+
+    private final CurrentStatus categoryStatus;
+
+    private final Long parentCategoryId;
+
+    private final List<CategoryTreeNodeDTO> subCategories;
+
+    public CategoryTreeNodeDTO(
+        Long id,
+        String categoryName,
+        String categorySlug,
+        CurrentStatus categoryStatus,
+        Long parentCategoryId,
+        List<CategoryTreeNodeDTO> subCategories
+    ) {
+        this.id = id;
+        this.categoryName = categoryName;
+        this.categorySlug = categorySlug;
+        this.categoryStatus = categoryStatus;
+        this.parentCategoryId = parentCategoryId;
+        this.subCategories = Collections.unmodifiableList(subCategories);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public String getCategorySlug() {
+        return categorySlug;
+    }
+
+    public CurrentStatus getCategoryStatus() {
+        return categoryStatus;
+    }
+
+    public Long getParentCategoryId() {
+        return parentCategoryId;
+    }
+
+    public List<CategoryTreeNodeDTO> getSubCategories() {
+        return subCategories;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CategoryTreeNodeDTO{" +
+            "id=" + id +
+            ", categoryName='" + categoryName + "'" +
+            ", categorySlug='" + categorySlug + "'" +
+            ", categoryStatus='" + categoryStatus + "'" +
+            ", parentCategoryId=" + parentCategoryId +
+            "}";
+    }
+}
@@ -0,0 +1,47 @@
+package com.hcmus.chemistry.domain.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HomepageCategoryDTO {
+
+    private Long id;
+
+    private String categoryName;
+
+    private String categorySlug;
+
+    private List<BlogPostDTO> blogPosts = new ArrayList<>();
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public String getCategorySlug() {
+        return categorySlug;
+    }
+
+    public void setCategorySlug(String categorySlug) {
+        this.categorySlug = categorySlug;
+    }
+
+    public List<BlogPostDTO> getBlogPosts() {
+        return blogPosts;
+    }
+
+    public void setBlogPosts(List<BlogPostDTO> blogPosts) {
+        this.blogPosts = blogPosts;
+    }
+}
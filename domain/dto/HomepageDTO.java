@@ -0,0 +1,38 @@
+package com.hcmus.chemistry.domain.dto;
+
+import com.hcmus.chemistry.domain.Banner;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HomepageDTO {
+
+    private List<Banner> banners = new ArrayList<>();
+
+    private List<BlogPostDTO> carousel = new ArrayList<>();
+
+    private List<HomepageCategoryDTO> categories = new ArrayList<>();
+
+    public List<Banner> getBanners() {
+        return banners;
+    }
+
+    public void setBanners(List<Banner> banners) {
+        this.banners = banners;
+    }
+
+    public List<BlogPostDTO> getCarousel() {
+        return carousel;
+    }
+
+    public void setCarousel(List<BlogPostDTO> carousel) {
+        this.carousel = carousel;
+    }
+
+    public List<HomepageCategoryDTO> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<HomepageCategoryDTO> categories) {
+        this.categories = categories;
+    }
+}
@@ -1,6 +1,7 @@
 package com.hcmus.chemistry.repository;
 
 import com.hcmus.chemistry.domain.Banner;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,15 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface BannerRepository extends JpaRepository<Banner, Long>, JpaSpecificationExecutor<Banner> {}
+public interface BannerRepository extends JpaRepository<Banner, Long>, JpaSpecificationExecutor<Banner> {
+    String COUNT_BY_CRITERIA_CACHE = "bannerCountsByCriteria";
+
+    @Query("select banner.id, banner.bannerLink from Banner banner where banner.bannerLink is not null")
+    List<Object[]> findBannerLinks();
+
+    /**
+     * @return the number of rows estimated by the planner statistics, negative if the table was never analyzed.
+     */
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = CAST('banner' AS regclass)", nativeQuery = true)
+    Long estimateCount();
+}
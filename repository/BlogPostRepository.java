@@ -1,8 +1,15 @@
 package com.hcmus.chemistry.repository;
 
 import com.hcmus.chemistry.domain.BlogPost;
+import com.hcmus.chemistry.domain.enumeration.CurrentStatus;
+import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,23 +18,113 @@ import org.springframework.stereotype.Repository;
 @SuppressWarnings("unused")
 @Repository
 public interface BlogPostRepository extends JpaRepository<BlogPost, Long>, JpaSpecificationExecutor<BlogPost> {
+    String LATEST_BY_CATEGORIES_CACHE = "latestBlogPostsByCategories";
+    String COUNT_BY_CRITERIA_CACHE = "blogPostCountsByCriteria";
+    String ID_BY_SLUG_CACHE = "blogPostIdBySlug";
+
     @Query(
-        value = "SELECT * " +
-        "FROM blog_post " +
-        "WHERE (lower(unaccent(regexp_replace(" +
-        "CASE WHEN ?2 = 'en' THEN blog_post_content_en ELSE blog_post_content_vi END, '<[^>]*>', '', 'g'))) " +
-        "LIKE %?1%) or (lower(CASE WHEN ?2 = 'en' THEN blog_post_title_en ELSE blog_post_title_vi END) LIKE %?1%)",
+        value = "SELECT bp.id, bp.blog_post_title_vi AS blogPostTitleVi, bp.blog_post_title_en AS blogPostTitleEn, " +
+        "bp.blog_post_slug AS blogPostSlug, bp.thumbnail_link AS thumbnailLink, " +
+        "ts_headline('vietnamese_unaccent', coalesce(bp.blog_post_content_plain_vi, ''), websearch_to_tsquery('simple', :query), :headlineOptions) AS snippet " +
+        "FROM blog_post bp " +
+        "WHERE to_tsvector('simple', coalesce(bp.search_document_vi, '')) @@ websearch_to_tsquery('simple', :query) " +
+        "ORDER BY ts_rank(to_tsvector('simple', coalesce(bp.search_document_vi, '')), websearch_to_tsquery('simple', :query)) DESC, " +
+        "bp.id DESC",
+        countQuery = "SELECT count(*) FROM blog_post bp " +
+        "WHERE to_tsvector('simple', coalesce(bp.search_document_vi, '')) @@ websearch_to_tsquery('simple', :query)",
         nativeQuery = true
     )
-    List<BlogPost> searchBlogPostByBlogPostContentI18n(String queryString, String language);
+    Page<Object[]> searchBlogPostsVi(@Param("query") String query, @Param("headlineOptions") String headlineOptions, Pageable pageable);
+
+    @Query(
+        value = "SELECT bp.id, bp.blog_post_title_vi AS blogPostTitleVi, bp.blog_post_title_en AS blogPostTitleEn, " +
+        "bp.blog_post_slug AS blogPostSlug, bp.thumbnail_link AS thumbnailLink, " +
+        "ts_headline('english', coalesce(bp.blog_post_content_plain_en, ''), websearch_to_tsquery('english', :query), :headlineOptions) AS snippet " +
+        "FROM blog_post bp " +
+        "WHERE to_tsvector('english', coalesce(bp.search_document_en, '')) @@ websearch_to_tsquery('english', :query) " +
+        "ORDER BY ts_rank(to_tsvector('english', coalesce(bp.search_document_en, '')), websearch_to_tsquery('english', :query)) DESC, " +
+        "bp.id DESC",
+        countQuery = "SELECT count(*) FROM blog_post bp " +
+        "WHERE to_tsvector('english', coalesce(bp.search_document_en, '')) @@ websearch_to_tsquery('english', :query)",
+        nativeQuery = true
+    )
+    Page<Object[]> searchBlogPostsEn(@Param("query") String query, @Param("headlineOptions") String headlineOptions, Pageable pageable);
+
+    @Query("select blogPost.id from BlogPost blogPost where blogPost.id > :id order by blogPost.id")
+    List<Long> findIdsAfter(@Param("id") Long id, Pageable pageable);
+
+    @Query(
+        "select blogPost.id, blogPost.blogPostTitleVi, blogPost.blogPostDescriptionVi, blogPost.blogPostContentVi, " +
+        "blogPost.blogPostTitleEn, blogPost.blogPostDescriptionEn, blogPost.blogPostContentEn " +
+        "from BlogPost blogPost where blogPost.id in :ids"
+    )
+    List<Object[]> findTextsByIdIn(@Param("ids") List<Long> ids);
+
+    @Query(
+        "select blogPost.id, blogPost.thumbnailLink, blogPost.blogPostDescriptionVi, blogPost.blogPostContentVi, " +
+        "blogPost.blogPostDescriptionEn, blogPost.blogPostContentEn " +
+        "from BlogPost blogPost where blogPost.id > :id order by blogPost.id"
+    )
+    List<Object[]> findImageLinksAfter(@Param("id") Long id, Pageable pageable);
 
     @Query(
         value = "SELECT bp.id, bp.blog_post_title_vi AS blogPostTitleVi, bp.blog_post_title_en AS blogPostTitleEn, " +
         "bp.blog_post_slug AS blogPostSlug, bp.thumbnail_link AS thumbnailLink, bp.created_time AS createdTime " +
         "FROM blog_post bp " +
-        "WHERE bp.blog_post_status = 'ENABLED' AND bp.time_to_publish <= now() " +
+        "WHERE bp.blog_post_status = 'ENABLED' AND bp.time_to_publish <= :now " +
         "ORDER BY bp.modified_time DESC LIMIT 6",
         nativeQuery = true
     )
-    List<Object[]> findBlogPostsCarousel();
+    List<Object[]> findBlogPostsCarousel(@Param("now") ZonedDateTime now);
+
+    @Query(
+        value = "SELECT ranked.id, ranked.blogPostTitleVi, ranked.blogPostTitleEn, ranked.blogPostSlug, ranked.thumbnailLink, " +
+        "ranked.createdTime, ranked.numberOfViews, ranked.categoryId " +
+        "FROM (SELECT bp.id, bp.blog_post_title_vi AS blogPostTitleVi, bp.blog_post_title_en AS blogPostTitleEn, " +
+        "bp.blog_post_slug AS blogPostSlug, bp.thumbnail_link AS thumbnailLink, bp.created_time AS createdTime, " +
+        "bp.number_of_views AS numberOfViews, bp.category_id AS categoryId, " +
+        "ROW_NUMBER() OVER (PARTITION BY bp.category_id ORDER BY bp.time_to_publish DESC, bp.id DESC) AS categoryRank " +
+        "FROM blog_post bp " +
+        "WHERE bp.category_id IN (:categoryIds) AND bp.blog_post_status = 'ENABLED' AND bp.published = true) ranked " +
+        "WHERE ranked.categoryRank <= :size " +
+        "ORDER BY ranked.categoryId, ranked.categoryRank",
+        nativeQuery = true
+    )
+    List<Object[]> findLatestByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds, @Param("size") int size);
+
+    @Query(
+        "select min(blogPost.timeToPublish) from BlogPost blogPost " +
+        "where blogPost.blogPostStatus = :status and blogPost.timeToPublish > :now"
+    )
+    ZonedDateTime findNextTimeToPublish(@Param("status") CurrentStatus status, @Param("now") ZonedDateTime now);
+
+    @Query(
+        "select blogPost.id from BlogPost blogPost " +
+        "where blogPost.published = false and blogPost.timeToPublish <= :now"
+    )
+    List<Long> findIdsToPublish(@Param("now") ZonedDateTime now);
+
+    @Modifying
+    @Query(
+        "update BlogPost blogPost set blogPost.published = true " +
+        "where blogPost.id in :ids and blogPost.published = false"
+    )
+    int publishByIdIn(@Param("ids") List<Long> ids);
+
+    @Query("select min(blogPost.timeToPublish) from BlogPost blogPost where blogPost.published = false")
+    ZonedDateTime findEarliestUnpublishedTimeToPublish();
+
+    /**
+     * @return the number of rows estimated by the planner statistics, negative if the table was never analyzed.
+     */
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = CAST('blog_post' AS regclass)", nativeQuery = true)
+    Long estimateCount();
+
+    /**
+     * @param slug the slug of the blogPost.
+     * @return the id of the blogPost, or {@code null} if there is none, which is not cached.
+     */
+    @Cacheable(cacheNames = ID_BY_SLUG_CACHE, unless = "#result == null")
+    @Query("select blogPost.id from BlogPost blogPost where blogPost.blogPostSlug = :slug")
+    Long findIdByBlogPostSlug(@Param("slug") String slug);
 }
@@ -2,6 +2,7 @@ package com.hcmus.chemistry.repository;
 
 import com.hcmus.chemistry.domain.Category;
 import java.util.List;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -11,12 +12,25 @@ import org.springframework.stereotype.Repository;
 @SuppressWarnings("unused")
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long>, JpaSpecificationExecutor<Category> {
-    @Query(
-        value = "SELECT * FROM category WHERE category_name in ('Tin tức - sự kiện', 'ĐÀO TẠO ĐH', 'Sinh viên - Cựu SV', 'Nghiên cứu khoa học')",
-        nativeQuery = true
-    )
+    String HOMEPAGE_CATEGORIES_CACHE = "homepageCategories";
+    String COUNT_BY_CRITERIA_CACHE = "categoryCountsByCriteria";
+
+    @Cacheable(cacheNames = HOMEPAGE_CATEGORIES_CACHE)
+    @Query("select category from Category category where category.featured = true order by category.homepagePosition, category.id")
     List<Category> getHomePageCategories();
 
     @Query(value = "select * from category c where c.category_status = 'ENABLED'", nativeQuery = true)
     List<Category> getCategoriesWithConditions();
+
+    @Query(
+        "select category.id, category.categoryName, category.categorySlug, category.categoryStatus, parentCategory.id " +
+        "from Category category left join category.parentCategory parentCategory order by category.id"
+    )
+    List<Object[]> findAllForTree();
+
+    /**
+     * @return the number of rows estimated by the planner statistics, negative if the table was never analyzed.
+     */
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = CAST('category' AS regclass)", nativeQuery = true)
+    Long estimateCount();
 }
@@ -5,6 +5,7 @@ import com.hcmus.chemistry.domain.Banner;
 import com.hcmus.chemistry.repository.BannerRepository;
 import com.hcmus.chemistry.service.criteria.BannerCriteria;
 import java.util.List;
+import java.util.Optional;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,8 +30,11 @@ public class BannerQueryService extends QueryService<Banner> {
 
     private final BannerRepository bannerRepository;
 
-    public BannerQueryService(BannerRepository bannerRepository) {
+    private final CriteriaCountService criteriaCountService;
+
+    public BannerQueryService(BannerRepository bannerRepository, CriteriaCountService criteriaCountService) {
         this.bannerRepository = bannerRepository;
+        this.criteriaCountService = criteriaCountService;
     }
 
     /**
@@ -65,9 +69,30 @@ public class BannerQueryService extends QueryService<Banner> {
      */
     @Transactional(readOnly = true)
     public long countByCriteria(BannerCriteria criteria) {
-        log.debug("count by criteria : {}", criteria);
+        return countByCriteria(criteria, false);
+    }
+
+    /**
+     * Return the number of matching entities, cached until a banner changes.
+     * <p>
+     * When approximate totals are accepted and nothing is filtered, a large table is not counted,
+     * the planner estimate is returned instead.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param approximate Whether an estimate can be returned.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(BannerCriteria criteria, boolean approximate) {
+        log.debug("count by criteria : {}, approximate: {}", criteria, approximate);
+        BannerCriteria key = criteria != null ? criteria : new BannerCriteria();
+        if (approximate && key.equals(new BannerCriteria())) {
+            Optional<Long> estimate = criteriaCountService.trustedEstimate(bannerRepository.estimateCount());
+            if (estimate.isPresent()) {
+                return estimate.get();
+            }
+        }
         final Specification<Banner> specification = createSpecification(criteria);
-        return bannerRepository.count(specification);
+        return criteriaCountService.count(BannerRepository.COUNT_BY_CRITERIA_CACHE, key, () -> bannerRepository.count(specification));
     }
 
     /**
@@ -3,10 +3,12 @@ package com.hcmus.chemistry.service;
 import com.hcmus.chemistry.domain.Banner;
 import com.hcmus.chemistry.repository.BannerRepository;
 import com.hcmus.chemistry.security.SecurityUtils;
+import com.hcmus.chemistry.service.event.ContentChangedEvent;
 import java.time.ZonedDateTime;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -23,8 +25,11 @@ public class BannerService {
 
     private final BannerRepository bannerRepository;
 
-    public BannerService(BannerRepository bannerRepository) {
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public BannerService(BannerRepository bannerRepository, ApplicationEventPublisher applicationEventPublisher) {
         this.bannerRepository = bannerRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     /**
@@ -38,7 +43,7 @@ public class BannerService {
         if (banner.getCreatedBy() == null) {
             banner.setCreatedBy(SecurityUtils.getCurrentUserLogin().orElse(null));
         }
-        return bannerRepository.save(banner);
+        return publishContentChanged(bannerRepository.save(banner));
     }
 
     /**
@@ -52,7 +57,7 @@ public class BannerService {
         if (banner.getModifiedBy() == null) {
             banner.setModifiedBy(SecurityUtils.getCurrentUserLogin().orElse(null));
         }
-        return bannerRepository.save(banner);
+        return publishContentChanged(bannerRepository.save(banner));
     }
 
     /**
@@ -88,7 +93,8 @@ public class BannerService {
 
                 return existingBanner;
             })
-            .map(bannerRepository::save);
+            .map(bannerRepository::save)
+            .map(this::publishContentChanged);
     }
 
     /**
@@ -123,5 +129,11 @@ public class BannerService {
     public void delete(Long id) {
         log.debug("Request to delete Banner : {}", id);
         bannerRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(new ContentChangedEvent(Banner.class, id));
+    }
+
+    private Banner publishContentChanged(Banner banner) {
+        applicationEventPublisher.publishEvent(new ContentChangedEvent(Banner.class, banner.getId()));
+        return banner;
     }
 }
@@ -0,0 +1,139 @@
+package com.hcmus.chemistry.service;
+
+import com.hcmus.chemistry.config.ApplicationProperties;
+import com.hcmus.chemistry.domain.BlogPost;
+import com.hcmus.chemistry.domain.dto.BlogPostDTO;
+import com.hcmus.chemistry.domain.enumeration.CurrentStatus;
+import com.hcmus.chemistry.repository.BlogPostRepository;
+import com.hcmus.chemistry.service.event.ContentChangedEvent;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service caching the blog posts of the carousel.
+ * <p>
+ * The carousel only shows the blog posts whose publication time has come, so the cached one expires at the earliest
+ * publication time still to come, when it would change. It is also evicted once a blog post change is committed.
+ * Changes made on other nodes publish no local event, so the carousel is kept at most
+ * {@code application.homepage.refresh-interval}, like the homepage built from it.
+ */
+@Service
+@Transactional(readOnly = true)
+public class BlogPostCarouselService {
+
+    private final Logger log = LoggerFactory.getLogger(BlogPostCarouselService.class);
+
+    private final BlogPostRepository blogPostRepository;
+
+    private final Duration timeToLive;
+
+    private Carousel carousel;
+
+    /**
+     * Incremented on each eviction, so a carousel loaded before an eviction is not cached after it.
+     */
+    private long generation;
+
+    public BlogPostCarouselService(BlogPostRepository blogPostRepository, ApplicationProperties applicationProperties) {
+        this.blogPostRepository = blogPostRepository;
+        this.timeToLive = Duration.ofMillis(applicationProperties.getHomepage().getRefreshInterval());
+    }
+
+    /**
+     * Get the blog posts of the carousel, the most recently modified first.
+     *
+     * @return the blog posts of the carousel.
+     */
+    public List<BlogPostDTO> getCarousel() {
+        ZonedDateTime now = ZonedDateTime.now();
+        long loadedGeneration;
+        synchronized (this) {
+            if (carousel != null && carousel.isValidAt(now)) {
+                return carousel.blogPosts;
+            }
+            loadedGeneration = generation;
+        }
+
+        log.debug("Request to load the BlogPosts of the carousel");
+        // both queries use the same instant, so no blog post published in between is missed
+        List<BlogPostDTO> blogPosts = Collections.unmodifiableList(toBlogPostDTOs(blogPostRepository.findBlogPostsCarousel(now)));
+        ZonedDateTime expiresAt = now.plus(timeToLive);
+        ZonedDateTime nextTimeToPublish = blogPostRepository.findNextTimeToPublish(CurrentStatus.ENABLED, now);
+        if (nextTimeToPublish != null && nextTimeToPublish.isBefore(expiresAt)) {
+            expiresAt = nextTimeToPublish;
+        }
+        Carousel loaded = new Carousel(blogPosts, expiresAt);
+        synchronized (this) {
+            if (generation == loadedGeneration) {
+                carousel = loaded;
+            }
+        }
+        return blogPosts;
+    }
+
+    /**
+     * Evict the carousel once the transaction which changed a blog post is committed.
+     * <p>
+     * This runs before the other listeners, so they see the new carousel.
+     *
+     * @param event the change.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (BlogPost.class.equals(event.getEntityType())) {
+            evict();
+        }
+    }
+
+    public synchronized void evict() {
+        generation++;
+        carousel = null;
+    }
+
+    private List<BlogPostDTO> toBlogPostDTOs(List<Object[]> blogPosts) {
+        List<BlogPostDTO> result = new ArrayList<>();
+        for (Object[] blogPost : blogPosts) {
+            BlogPostDTO blogPostDTO = new BlogPostDTO();
+            blogPostDTO.setId(((BigInteger) blogPost[0]).longValue());
+            blogPostDTO.setBlogPostTitleVi((String) blogPost[1]);
+            blogPostDTO.setBlogPostTitleEn((String) blogPost[2]);
+            blogPostDTO.setBlogPostSlug((String) blogPost[3]);
+            blogPostDTO.setThumbnailLink((String) blogPost[4]);
+            blogPostDTO.setCreatedTime(ZonedDateTime.ofInstant(((java.sql.Timestamp) blogPost[5]).toInstant(), ZoneId.systemDefault()));
+            result.add(blogPostDTO);
+        }
+        return result;
+    }
+
+    private static final class Carousel {
+
+        private final List<BlogPostDTO> blogPosts;
+
+        /**
+         * The earliest publication time still to come, or the end of the time to live if it is sooner.
+         */
+        private final ZonedDateTime expiresAt;
+
+        private Carousel(List<BlogPostDTO> blogPosts, ZonedDateTime expiresAt) {
+            this.blogPosts = blogPosts;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isValidAt(ZonedDateTime time) {
+            return time.isBefore(expiresAt);
+        }
+    }
+}
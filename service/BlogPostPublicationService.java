@@ -0,0 +1,120 @@
+package com.hcmus.chemistry.service;
+
+import com.hcmus.chemistry.domain.BlogPost;
+import com.hcmus.chemistry.repository.BlogPostRepository;
+import com.hcmus.chemistry.service.event.ContentChangedEvent;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service flagging the {@link BlogPost}s as published when their publication time comes.
+ * <p>
+ * A single timer is armed at the earliest publication time still to come, read from the database at startup
+ * and after each blog post change. When it fires, the due blog posts are published and the timer is armed again.
+ * A check every {@code application.publication.check-interval} catches the changes made on other nodes.
+ */
+@Service
+public class BlogPostPublicationService {
+
+    private final Logger log = LoggerFactory.getLogger(BlogPostPublicationService.class);
+
+    private final BlogPostService blogPostService;
+
+    private final BlogPostRepository blogPostRepository;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+        new CustomizableThreadFactory("blog-post-publication-")
+    );
+
+    private ScheduledFuture<?> nextPublication;
+
+    private ZonedDateTime nextTimeToPublish;
+
+    public BlogPostPublicationService(BlogPostService blogPostService, BlogPostRepository blogPostRepository) {
+        this.blogPostService = blogPostService;
+        this.blogPostRepository = blogPostRepository;
+    }
+
+    /**
+     * Publish the blog posts which became due while the application was stopped, then arm the timer.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        publishDuePosts();
+    }
+
+    /**
+     * Arm the timer again once the transaction which changed a blog post is committed, its publication time may have changed.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (BlogPost.class.equals(event.getEntityType())) {
+            scheduleNextPublication();
+        }
+    }
+
+    @Scheduled(
+        initialDelayString = "${application.publication.check-interval:60000}",
+        fixedDelayString = "${application.publication.check-interval:60000}"
+    )
+    public void checkPeriodically() {
+        publishDuePosts();
+    }
+
+    /**
+     * Publish the blog posts whose publication time has come, then arm the timer at the next publication time.
+     */
+    public synchronized void publishDuePosts() {
+        try {
+            blogPostService.publishDuePosts();
+        } catch (RuntimeException e) {
+            // retried by the periodic check, rather than right away by a timer already due
+            log.warn("Could not publish the due blog posts: {}", e.getMessage());
+            return;
+        }
+        scheduleNextPublication();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private synchronized void scheduleNextPublication() {
+        ZonedDateTime timeToPublish;
+        try {
+            timeToPublish = blogPostRepository.findEarliestUnpublishedTimeToPublish();
+        } catch (RuntimeException e) {
+            log.warn("Could not find the next blog post to publish: {}", e.getMessage());
+            return;
+        }
+        if (nextPublication != null && !nextPublication.isDone() && timeToPublish != null && timeToPublish.equals(nextTimeToPublish)) {
+            return;
+        }
+        if (nextPublication != null) {
+            nextPublication.cancel(false);
+            nextPublication = null;
+        }
+        nextTimeToPublish = timeToPublish;
+        if (timeToPublish != null) {
+            long delay = Math.max(0, Duration.between(ZonedDateTime.now(), timeToPublish).toMillis());
+            log.debug("Next blog post publication at {}", timeToPublish);
+            nextPublication = executor.schedule(this::publishDuePosts, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+}
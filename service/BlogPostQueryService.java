@@ -2,20 +2,44 @@ package com.hcmus.chemistry.service;
 
 import com.hcmus.chemistry.domain.*; // for static metamodels
 import com.hcmus.chemistry.domain.BlogPost;
+import com.hcmus.chemistry.domain.enumeration.CurrentStatus;
 import com.hcmus.chemistry.repository.BlogPostRepository;
 import com.hcmus.chemistry.service.criteria.BlogPostCriteria;
+import com.hcmus.chemistry.service.dto.BlogPostCursor;
+import com.hcmus.chemistry.service.utils.SearchTextUtils;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
-import javax.persistence.criteria.Expression;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
 import javax.persistence.criteria.JoinType;
-import org.apache.commons.lang3.StringUtils;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import tech.jhipster.service.QueryService;
+import tech.jhipster.service.filter.LongFilter;
 
 /**
  * Service for executing complex queries for {@link BlogPost} entities in the database.
@@ -27,12 +51,28 @@ import tech.jhipster.service.QueryService;
 @Transactional(readOnly = true)
 public class BlogPostQueryService extends QueryService<BlogPost> {
 
+    private static final char LIKE_ESCAPE = '\\';
+
     private final Logger log = LoggerFactory.getLogger(BlogPostQueryService.class);
 
     private final BlogPostRepository blogPostRepository;
 
-    public BlogPostQueryService(BlogPostRepository blogPostRepository) {
+    private final EntityManager entityManager;
+
+    private final CategoryTreeService categoryTreeService;
+
+    private final CriteriaCountService criteriaCountService;
+
+    public BlogPostQueryService(
+        BlogPostRepository blogPostRepository,
+        EntityManager entityManager,
+        CategoryTreeService categoryTreeService,
+        CriteriaCountService criteriaCountService
+    ) {
         this.blogPostRepository = blogPostRepository;
+        this.entityManager = entityManager;
+        this.categoryTreeService = categoryTreeService;
+        this.criteriaCountService = criteriaCountService;
     }
 
     /**
@@ -49,23 +89,87 @@ public class BlogPostQueryService extends QueryService<BlogPost> {
 
     /**
      * Return a {@link Page} of {@link BlogPost} which matches the criteria from the database.
+     * <p>
+     * The contents and their derived columns are never selected, the returned blogPosts are built from a projection
+     * and are not managed by the persistence context.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
-     * @return the matching entities.
+     * @return the matching entities, without their contents.
      */
     @Transactional(readOnly = true)
     public Page<BlogPost> findByCriteria(BlogPostCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+        return findByCriteria(criteria, page, false);
+    }
+
+    /**
+     * Return a {@link Page} of {@link BlogPost} which matches the criteria from the database,
+     * its total coming from {@link #countByCriteria(BlogPostCriteria, boolean)}.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @param approximate Whether the total can be an estimate.
+     * @return the matching entities, without their contents.
+     */
+    @Transactional(readOnly = true)
+    public Page<BlogPost> findByCriteria(BlogPostCriteria criteria, Pageable page, boolean approximate) {
+        log.debug("find by criteria : {}, page: {}, approximate: {}", criteria, page, approximate);
         final Specification<BlogPost> specification = createSpecification(criteria);
-        Page<BlogPost> blogPosts = blogPostRepository.findAll(specification, page);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<BlogPost> root = query.from(BlogPost.class);
+        BlogPostListing listing = new BlogPostListing(root);
+        query.multiselect(listing.getSelections());
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(page.getSort(), root, builder));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (page.isPaged()) {
+            typedQuery.setFirstResult((int) page.getOffset());
+            typedQuery.setMaxResults(page.getPageSize());
+        }
+        List<BlogPost> blogPosts = typedQuery.getResultList().stream().map(listing::toBlogPost).collect(Collectors.toList());
+        return PageableExecutionUtils.getPage(blogPosts, page, () -> countByCriteria(criteria, approximate));
+    }
 
-        // to avoid calling the content of blog post, it takes a lot of time
-        blogPosts.forEach(blogPost -> {
-            blogPost.setBlogPostContentEn(null);
-            blogPost.setBlogPostContentVi(null);
-        });
+    /**
+     * Return a {@link Slice} of {@link BlogPost} which matches the criteria from the database, after a cursor.
+     * <p>
+     * The blogPosts are ordered by {@code timeToPublish} then {@code id}, both descending, and those without
+     * {@code timeToPublish} are left out. The database seeks to the cursor instead of skipping the previous rows,
+     * and nothing is counted, so every page costs the same. Like with {@link #findByCriteria(BlogPostCriteria, Pageable)},
+     * the contents are never selected.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The position of the last blogPost of the previous page, or {@code null} for the first page.
+     * @param size The maximum number of blogPosts to return.
+     * @return the matching entities, without their contents, and whether there are more.
+     */
+    @Transactional(readOnly = true)
+    public Slice<BlogPost> findByCriteria(BlogPostCriteria criteria, BlogPostCursor cursor, int size) {
+        log.debug("find by criteria : {}, after: {}, size: {}", criteria, cursor, size);
+        final Specification<BlogPost> specification = createSpecification(criteria).and(after(cursor));
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<BlogPost> root = query.from(BlogPost.class);
+        BlogPostListing listing = new BlogPostListing(root);
+        query.multiselect(listing.getSelections());
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(builder.desc(root.get(BlogPost_.timeToPublish)), builder.desc(root.get(BlogPost_.id)));
 
-        return blogPosts;
+        // one more row tells whether there is a next page
+        List<BlogPost> blogPosts = entityManager
+            .createQuery(query)
+            .setMaxResults(size + 1)
+            .getResultList()
+            .stream()
+            .map(listing::toBlogPost)
+            .collect(Collectors.toList());
+        boolean hasNext = blogPosts.size() > size;
+        return new SliceImpl<>(hasNext ? blogPosts.subList(0, size) : blogPosts, PageRequest.of(0, size), hasNext);
     }
 
     /**
@@ -75,9 +179,30 @@ public class BlogPostQueryService extends QueryService<BlogPost> {
      */
     @Transactional(readOnly = true)
     public long countByCriteria(BlogPostCriteria criteria) {
-        log.debug("count by criteria : {}", criteria);
+        return countByCriteria(criteria, false);
+    }
+
+    /**
+     * Return the number of matching entities, cached until a blogPost or a category changes.
+     * <p>
+     * When approximate totals are accepted and nothing is filtered, a large table is not counted,
+     * the planner estimate is returned instead.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param approximate Whether an estimate can be returned.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(BlogPostCriteria criteria, boolean approximate) {
+        log.debug("count by criteria : {}, approximate: {}", criteria, approximate);
+        BlogPostCriteria key = criteria != null ? criteria : new BlogPostCriteria();
+        if (approximate && key.equals(new BlogPostCriteria())) {
+            Optional<Long> estimate = criteriaCountService.trustedEstimate(blogPostRepository.estimateCount());
+            if (estimate.isPresent()) {
+                return estimate.get();
+            }
+        }
         final Specification<BlogPost> specification = createSpecification(criteria);
-        return blogPostRepository.count(specification);
+        return criteriaCountService.count(BlogPostRepository.COUNT_BY_CRITERIA_CACHE, key, () -> blogPostRepository.count(specification));
     }
 
     /**
@@ -96,16 +221,11 @@ public class BlogPostQueryService extends QueryService<BlogPost> {
                 specification = specification.and(buildRangeSpecification(criteria.getId(), BlogPost_.id));
             }
             if (criteria.getBlogPostTitleVi() != null) {
-                specification =
-                    specification.and((root, query, builder) -> {
-                        String queryString = wrapLikeQuery(StringUtils.stripAccents(criteria.getBlogPostTitleVi().getContains()));
-                        Expression<String> unaccentedTitle = builder.function(
-                            "UNACCENT",
-                            String.class,
-                            builder.upper(root.get(BlogPost_.BLOG_POST_TITLE_VI))
-                        );
-                        return builder.like(unaccentedTitle, queryString);
-                    });
+                if (criteria.getBlogPostTitleVi().getContains() != null) {
+                    specification = specification.and(byTitlePlainViContaining(criteria.getBlogPostTitleVi().getContains()));
+                } else {
+                    specification = specification.and(buildStringSpecification(criteria.getBlogPostTitleVi(), BlogPost_.blogPostTitleVi));
+                }
             }
             if (criteria.getBlogPostDescriptionVi() != null) {
                 specification =
@@ -154,13 +274,169 @@ public class BlogPostQueryService extends QueryService<BlogPost> {
             if (criteria.getNumberOfViews() != null) {
                 specification = specification.and(buildRangeSpecification(criteria.getNumberOfViews(), BlogPost_.numberOfViews));
             }
+            if (criteria.getPublished() != null) {
+                specification = specification.and(buildSpecification(criteria.getPublished(), BlogPost_.published));
+            }
             if (criteria.getCategoryId() != null) {
-                specification =
-                    specification.and(
-                        buildSpecification(criteria.getCategoryId(), root -> root.join(BlogPost_.category, JoinType.LEFT).get(Category_.id))
-                    );
+                if (Boolean.TRUE.equals(criteria.getIncludeSubCategories()) && hasCategoryIds(criteria.getCategoryId())) {
+                    specification = specification.and(byCategoryIdInWithSubCategories(criteria.getCategoryId()));
+                } else {
+                    specification =
+                        specification.and(
+                            buildSpecification(
+                                criteria.getCategoryId(),
+                                root -> root.join(BlogPost_.category, JoinType.LEFT).get(Category_.id)
+                            )
+                        );
+                }
             }
         }
         return specification;
     }
+
+    private Specification<BlogPost> after(BlogPostCursor cursor) {
+        return (root, query, builder) -> {
+            Path<ZonedDateTime> timeToPublish = root.get(BlogPost_.timeToPublish);
+            if (cursor == null) {
+                return builder.isNotNull(timeToPublish);
+            }
+            // the redundant upper bound lets the index scan start at the cursor, the OR alone is only a filter
+            return builder.and(
+                builder.lessThanOrEqualTo(timeToPublish, cursor.getTimeToPublish()),
+                builder.or(
+                    builder.lessThan(timeToPublish, cursor.getTimeToPublish()),
+                    builder.and(
+                        builder.equal(timeToPublish, cursor.getTimeToPublish()),
+                        builder.lessThan(root.get(BlogPost_.id), cursor.getId())
+                    )
+                )
+            );
+        };
+    }
+
+    private boolean hasCategoryIds(LongFilter categoryId) {
+        return categoryId.getEquals() != null || (categoryId.getIn() != null && !categoryId.getIn().isEmpty());
+    }
+
+    /**
+     * Match the blogPosts whose title contains the text, ignoring accents and case.
+     * <p>
+     * The text is folded like {@link BlogPost#getBlogPostTitlePlainVi()}, and the plain column is compared as is,
+     * so its trigram index serves the leading wildcard.
+     */
+    private Specification<BlogPost> byTitlePlainViContaining(String text) {
+        String pattern = "%" + escapeLike(SearchTextUtils.normalize(text)) + "%";
+        return (root, query, builder) -> builder.like(root.get(BlogPost_.blogPostTitlePlainVi), pattern, LIKE_ESCAPE);
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Match the blogPosts of the given categories or of any of their subcategories, at any depth.
+     * <p>
+     * The subcategories are read from the category tree kept in memory, so a single {@code IN} on the category column is run.
+     */
+    private Specification<BlogPost> byCategoryIdInWithSubCategories(LongFilter categoryId) {
+        Set<Long> categoryIds = new HashSet<>();
+        if (categoryId.getEquals() != null) {
+            categoryIds.add(categoryId.getEquals());
+        }
+        if (categoryId.getIn() != null) {
+            categoryIds.addAll(categoryId.getIn());
+        }
+        CategoryTreeService.CategoryTree tree = categoryTreeService.getTree();
+        for (Long id : new ArrayList<>(categoryIds)) {
+            categoryIds.addAll(tree.getDescendantIds(id));
+        }
+        return (root, query, builder) -> root.get(BlogPost_.category).get(Category_.id).in(categoryIds);
+    }
+
+    /**
+     * Selection of the {@link BlogPost} columns needed by the listings, which excludes the contents.
+     */
+    private static final class BlogPostListing {
+
+        private final Path<Long> id;
+        private final Path<String> blogPostTitleVi;
+        private final Path<String> blogPostDescriptionVi;
+        private final Path<String> blogPostTitleEn;
+        private final Path<String> blogPostDescriptionEn;
+        private final Path<CurrentStatus> blogPostStatus;
+        private final Path<String> blogPostAuthor;
+        private final Path<String> blogPostSlug;
+        private final Path<ZonedDateTime> timeToPublish;
+        private final Path<String> thumbnailLink;
+        private final Path<ZonedDateTime> createdTime;
+        private final Path<ZonedDateTime> modifiedTime;
+        private final Path<String> modifiedBy;
+        private final Path<String> createdBy;
+        private final Path<Integer> numberOfViews;
+        private final Path<Boolean> published;
+        private final Join<BlogPost, Category> category;
+
+        private BlogPostListing(Root<BlogPost> root) {
+            this.id = root.get(BlogPost_.id);
+            this.blogPostTitleVi = root.get(BlogPost_.blogPostTitleVi);
+            this.blogPostDescriptionVi = root.get(BlogPost_.blogPostDescriptionVi);
+            this.blogPostTitleEn = root.get(BlogPost_.blogPostTitleEn);
+            this.blogPostDescriptionEn = root.get(BlogPost_.blogPostDescriptionEn);
+            this.blogPostStatus = root.get(BlogPost_.blogPostStatus);
+            this.blogPostAuthor = root.get(BlogPost_.blogPostAuthor);
+            this.blogPostSlug = root.get(BlogPost_.blogPostSlug);
+            this.timeToPublish = root.get(BlogPost_.timeToPublish);
+            this.thumbnailLink = root.get(BlogPost_.thumbnailLink);
+            this.createdTime = root.get(BlogPost_.createdTime);
+            this.modifiedTime = root.get(BlogPost_.modifiedTime);
+            this.modifiedBy = root.get(BlogPost_.modifiedBy);
+            this.createdBy = root.get(BlogPost_.createdBy);
+            this.numberOfViews = root.get(BlogPost_.numberOfViews);
+            this.published = root.get(BlogPost_.published);
+            this.category = root.join(BlogPost_.category, JoinType.LEFT);
+        }
+
+        private List<Selection<?>> getSelections() {
+            return Arrays.asList(
+                id,
+                blogPostTitleVi,
+                blogPostDescriptionVi,
+                blogPostTitleEn,
+                blogPostDescriptionEn,
+                blogPostStatus,
+                blogPostAuthor,
+                blogPostSlug,
+                timeToPublish,
+                thumbnailLink,
+                createdTime,
+                modifiedTime,
+                modifiedBy,
+                createdBy,
+                numberOfViews,
+                published,
+                category
+            );
+        }
+
+        private BlogPost toBlogPost(Tuple tuple) {
+            return new BlogPost()
+                .id(tuple.get(id))
+                .blogPostTitleVi(tuple.get(blogPostTitleVi))
+                .blogPostDescriptionVi(tuple.get(blogPostDescriptionVi))
+                .blogPostTitleEn(tuple.get(blogPostTitleEn))
+                .blogPostDescriptionEn(tuple.get(blogPostDescriptionEn))
+                .blogPostStatus(tuple.get(blogPostStatus))
+                .blogPostAuthor(tuple.get(blogPostAuthor))
+                .blogPostSlug(tuple.get(blogPostSlug))
+                .timeToPublish(tuple.get(timeToPublish))
+                .thumbnailLink(tuple.get(thumbnailLink))
+                .createdTime(tuple.get(createdTime))
+                .modifiedTime(tuple.get(modifiedTime))
+                .modifiedBy(tuple.get(modifiedBy))
+                .createdBy(tuple.get(createdBy))
+                .numberOfViews(tuple.get(numberOfViews))
+                .published(tuple.get(published))
+                .category(tuple.get(category));
+        }
+    }
 }
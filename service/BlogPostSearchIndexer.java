@@ -0,0 +1,204 @@
+package com.hcmus.chemistry.service;
+
+import com.hcmus.chemistry.domain.BlogPost;
+import com.hcmus.chemistry.repository.BlogPostRepository;
+import com.hcmus.chemistry.service.utils.SearchTextUtils;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service maintaining the plain-text columns and the full-text search documents of {@link BlogPost}.
+ * <p>
+ * They are computed when a blog post is written, so neither searching nor rendering a summary has to strip the HTML content.
+ * Only the plain titles, used by the title filter, are mapped on the entity; the plain contents and the search documents
+ * hold the content several times over, so they are written with JDBC and never loaded or cached with the blog post.
+ */
+@Service
+public class BlogPostSearchIndexer {
+
+    private static final int BATCH_SIZE = 50;
+
+    private static final String UPDATE_PLAIN_TEXT_SQL =
+        "UPDATE blog_post SET blog_post_title_plain_vi = ?, blog_post_content_plain_vi = ?, " +
+        "blog_post_title_plain_en = ?, blog_post_content_plain_en = ?, search_document_vi = ?, search_document_en = ? WHERE id = ?";
+
+    private static final String UPDATE_SEARCH_TEXT_SQL =
+        "UPDATE blog_post SET blog_post_content_plain_vi = ?, blog_post_content_plain_en = ?, " +
+        "search_document_vi = ?, search_document_en = ? WHERE id = ?";
+
+    private static final String SELECT_IDS_WITHOUT_PLAIN_TEXT_SQL =
+        "SELECT id FROM blog_post WHERE id > ? " +
+        "AND (blog_post_title_plain_vi IS NULL OR blog_post_content_plain_vi IS NULL OR search_document_vi IS NULL) " +
+        "ORDER BY id LIMIT ?";
+
+    private final Logger log = LoggerFactory.getLogger(BlogPostSearchIndexer.class);
+
+    private final BlogPostRepository blogPostRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    public BlogPostSearchIndexer(
+        BlogPostRepository blogPostRepository,
+        JdbcTemplate jdbcTemplate,
+        EntityManagerFactory entityManagerFactory
+    ) {
+        this.blogPostRepository = blogPostRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Compute the plain titles of a blogPost from its current titles, before it is saved.
+     * <p>
+     * The plain titles are folded, as they are only compared to folded filters.
+     *
+     * @param blogPost the entity to index.
+     */
+    public void index(BlogPost blogPost) {
+        blogPost.setBlogPostTitlePlainVi(SearchTextUtils.normalize(blogPost.getBlogPostTitleVi()));
+        blogPost.setBlogPostTitlePlainEn(SearchTextUtils.normalize(blogPost.getBlogPostTitleEn()));
+    }
+
+    /**
+     * Write the plain contents and the search documents of a blogPost, once it is saved and flushed.
+     *
+     * @param blogPost the saved entity.
+     */
+    public void indexSearchText(BlogPost blogPost) {
+        SearchText searchText = new SearchText(blogPost);
+        jdbcTemplate.update(
+            UPDATE_SEARCH_TEXT_SQL,
+            searchText.contentPlainVi,
+            searchText.contentPlainEn,
+            searchText.documentVi,
+            searchText.documentEn,
+            blogPost.getId()
+        );
+    }
+
+    /**
+     * Index the blogPosts written before the plain-text columns existed.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexMissingPlainText() {
+        log.debug("Indexing BlogPosts without plain text");
+        backfill(lastId -> jdbcTemplate.queryForList(SELECT_IDS_WITHOUT_PLAIN_TEXT_SQL, Long.class, lastId, BATCH_SIZE));
+    }
+
+    /**
+     * Recompute the plain-text columns and the search documents of all the blogPosts,
+     * for instance after a change of the normalization rules.
+     */
+    @Async
+    public void indexAll() {
+        log.debug("Indexing all BlogPosts");
+        backfill(lastId -> blogPostRepository.findIdsAfter(lastId, PageRequest.of(0, BATCH_SIZE)));
+    }
+
+    /**
+     * Index the blogPosts returned by the given query, by batches of {@value #BATCH_SIZE} in id order.
+     * <p>
+     * Only the derived columns are written, so the view counts flushed meanwhile by {@link BlogPostViewService} are kept.
+     *
+     * @param nextIds returns the next batch of ids greater than the given one.
+     */
+    private void backfill(Function<Long, List<Long>> nextIds) {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            log.debug("BlogPosts are already being indexed");
+            return;
+        }
+        try {
+            long indexed = 0;
+            List<Long> ids = nextIds.apply(0L);
+            while (!ids.isEmpty()) {
+                List<Object[]> batchArgs = blogPostRepository
+                    .findTextsByIdIn(ids)
+                    .stream()
+                    .map(this::toBatchArgs)
+                    .collect(Collectors.toList());
+                jdbcTemplate.batchUpdate(UPDATE_PLAIN_TEXT_SQL, batchArgs);
+                // the plain titles are mapped, so the cached blogPosts are stale
+                ids.forEach(id -> entityManagerFactory.getCache().evict(BlogPost.class, id));
+                indexed += ids.size();
+                ids = nextIds.apply(ids.get(ids.size() - 1));
+            }
+            log.debug("Indexed {} BlogPosts", indexed);
+        } catch (RuntimeException e) {
+            log.warn("Could not index BlogPosts: {}", e.getMessage());
+        } finally {
+            backfillRunning.set(false);
+        }
+    }
+
+    private Object[] toBatchArgs(Object[] texts) {
+        BlogPost blogPost = new BlogPost()
+            .id((Long) texts[0])
+            .blogPostTitleVi((String) texts[1])
+            .blogPostDescriptionVi((String) texts[2])
+            .blogPostContentVi((String) texts[3])
+            .blogPostTitleEn((String) texts[4])
+            .blogPostDescriptionEn((String) texts[5])
+            .blogPostContentEn((String) texts[6]);
+        index(blogPost);
+        SearchText searchText = new SearchText(blogPost);
+        return new Object[] {
+            blogPost.getBlogPostTitlePlainVi(),
+            searchText.contentPlainVi,
+            blogPost.getBlogPostTitlePlainEn(),
+            searchText.contentPlainEn,
+            searchText.documentVi,
+            searchText.documentEn,
+            blogPost.getId(),
+        };
+    }
+
+    /**
+     * The columns of a blogPost which are not mapped on the entity.
+     * <p>
+     * The plain contents keep their accents and case, as the search snippets are cut from them,
+     * while the search documents are folded like the queries.
+     */
+    private static final class SearchText {
+
+        private final String contentPlainVi;
+
+        private final String contentPlainEn;
+
+        private final String documentVi;
+
+        private final String documentEn;
+
+        private SearchText(BlogPost blogPost) {
+            this.contentPlainVi = SearchTextUtils.toPlainText(blogPost.getBlogPostContentVi());
+            this.contentPlainEn = SearchTextUtils.toPlainText(blogPost.getBlogPostContentEn());
+            this.documentVi =
+                SearchTextUtils.join(
+                    SearchTextUtils.normalize(blogPost.getBlogPostTitleVi()),
+                    SearchTextUtils.normalize(blogPost.getBlogPostDescriptionVi()),
+                    SearchTextUtils.fold(contentPlainVi)
+                );
+            this.documentEn =
+                SearchTextUtils.join(
+                    SearchTextUtils.normalize(blogPost.getBlogPostTitleEn()),
+                    SearchTextUtils.normalize(blogPost.getBlogPostDescriptionEn()),
+                    SearchTextUtils.fold(contentPlainEn)
+                );
+        }
+    }
+}
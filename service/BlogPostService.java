@@ -1,21 +1,41 @@
 package com.hcmus.chemistry.service;
 
 import com.hcmus.chemistry.domain.BlogPost;
+import com.hcmus.chemistry.domain.Category;
 import com.hcmus.chemistry.domain.dto.BlogPostDTO;
+import com.hcmus.chemistry.domain.dto.BlogPostSearchResultDTO;
 import com.hcmus.chemistry.repository.BlogPostRepository;
 import com.hcmus.chemistry.security.SecurityUtils;
+import com.hcmus.chemistry.service.event.BlogPostsPublishedEvent;
+import com.hcmus.chemistry.service.event.ContentChangedEvent;
+import com.hcmus.chemistry.service.utils.SearchTextUtils;
 import com.hcmus.chemistry.web.rest.errors.BadRequestAlertException;
-import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.SortedSet;
+import javax.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.util.HtmlUtils;
 
 /**
  * Service Implementation for managing {@link BlogPost}.
@@ -24,12 +44,45 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class BlogPostService {
 
+    private static final String HEADLINE_START = "\u0002";
+
+    private static final String HEADLINE_STOP = "\u0003";
+
+    private static final String HEADLINE_OPTIONS =
+        "StartSel=" + HEADLINE_START + ", StopSel=" + HEADLINE_STOP + ", MinWords=15, MaxWords=35, MaxFragments=2";
+
     private final Logger log = LoggerFactory.getLogger(BlogPostService.class);
 
     private final BlogPostRepository blogPostRepository;
 
-    public BlogPostService(BlogPostRepository blogPostRepository) {
+    private final BlogPostViewService blogPostViewService;
+
+    private final BlogPostSearchIndexer blogPostSearchIndexer;
+
+    private final BlogPostCarouselService blogPostCarouselService;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final CacheManager cacheManager;
+
+    private final EntityManager entityManager;
+
+    public BlogPostService(
+        BlogPostRepository blogPostRepository,
+        BlogPostViewService blogPostViewService,
+        BlogPostSearchIndexer blogPostSearchIndexer,
+        BlogPostCarouselService blogPostCarouselService,
+        ApplicationEventPublisher applicationEventPublisher,
+        CacheManager cacheManager,
+        EntityManager entityManager
+    ) {
         this.blogPostRepository = blogPostRepository;
+        this.blogPostViewService = blogPostViewService;
+        this.blogPostSearchIndexer = blogPostSearchIndexer;
+        this.blogPostCarouselService = blogPostCarouselService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.cacheManager = cacheManager;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -46,7 +99,7 @@ public class BlogPostService {
         if (blogPost.getCreatedBy() == null) {
             blogPost.setCreatedBy(SecurityUtils.getCurrentUserLogin().orElse(null));
         }
-        return blogPostRepository.save(blogPost);
+        return saveAndIndex(blogPost);
     }
 
     /**
@@ -57,7 +110,7 @@ public class BlogPostService {
      */
     public BlogPost update(BlogPost blogPost) {
         log.debug("Request to update BlogPost : {}", blogPost);
-        return blogPostRepository.save(blogPost);
+        return saveAndIndex(blogPost);
     }
 
     /**
@@ -120,10 +173,9 @@ public class BlogPostService {
                 if (blogPost.getNumberOfViews() != null) {
                     existingBlogPost.setNumberOfViews(blogPost.getNumberOfViews());
                 }
-
                 return existingBlogPost;
             })
-            .map(blogPostRepository::save);
+            .map(this::saveAndIndex);
     }
 
     /**
@@ -141,22 +193,90 @@ public class BlogPostService {
     @Transactional(readOnly = true)
     public List<BlogPostDTO> findBlogPostsCarousel() {
         log.debug("Request to get all BlogPosts with conditions");
-        List<Object[]> blogPosts = blogPostRepository.findBlogPostsCarousel();
-        List<BlogPostDTO> result = new ArrayList<>();
+        return blogPostCarouselService.getCarousel();
+    }
 
-        for (Object[] blogPost : blogPosts) {
+    /**
+     * Get the latest published blogPosts of each given category, in one query.
+     * <p>
+     * The result is cached per set of categories and size, until a blogPost or a category changes.
+     *
+     * @param categoryIds the ids of the categories, sorted so the same set always makes the same cache key.
+     * @param size the maximum number of blogPosts of each category.
+     * @return the blogPosts of each category, the latest first, by category id.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = BlogPostRepository.LATEST_BY_CATEGORIES_CACHE)
+    public Map<Long, List<BlogPostDTO>> findLatestByCategories(SortedSet<Long> categoryIds, int size) {
+        log.debug("Request to get the latest BlogPosts of the Categories : {}", categoryIds);
+        Map<Long, List<BlogPostDTO>> result = new LinkedHashMap<>();
+        categoryIds.forEach(categoryId -> result.put(categoryId, new ArrayList<>()));
+        for (Object[] blogPost : blogPostRepository.findLatestByCategoryIdIn(categoryIds, size)) {
             BlogPostDTO blogPostDTO = new BlogPostDTO();
-            blogPostDTO.setId(((BigInteger) blogPost[0]).longValue());
+            blogPostDTO.setId(((Number) blogPost[0]).longValue());
             blogPostDTO.setBlogPostTitleVi((String) blogPost[1]);
             blogPostDTO.setBlogPostTitleEn((String) blogPost[2]);
             blogPostDTO.setBlogPostSlug((String) blogPost[3]);
             blogPostDTO.setThumbnailLink((String) blogPost[4]);
-            blogPostDTO.setCreatedTime(
-                ZonedDateTime.ofInstant(((java.sql.Timestamp) blogPost[5]).toInstant(), java.time.ZoneId.systemDefault())
-            );
-            result.add(blogPostDTO);
+            if (blogPost[5] != null) {
+                blogPostDTO.setCreatedTime(ZonedDateTime.ofInstant(((Timestamp) blogPost[5]).toInstant(), ZoneId.systemDefault()));
+            }
+            blogPostDTO.setNumberOfViews(blogPost[6] != null ? ((Number) blogPost[6]).intValue() : null);
+            result.get(((Number) blogPost[7]).longValue()).add(blogPostDTO);
+        }
+        result.replaceAll((categoryId, blogPosts) -> Collections.unmodifiableList(blogPosts));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Clear the cached latest blogPosts of the categories once the transaction which changed a blogPost or a category is committed,
+     * and the cached ids of the slugs after a blogPost change.
+     * <p>
+     * This runs before the other listeners, so the homepage is rebuilt from the new blogPosts.
+     *
+     * @param event the change.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (BlogPost.class.equals(event.getEntityType()) || Category.class.equals(event.getEntityType())) {
+            Objects.requireNonNull(cacheManager.getCache(BlogPostRepository.LATEST_BY_CATEGORIES_CACHE)).clear();
+        }
+        if (BlogPost.class.equals(event.getEntityType())) {
+            Objects.requireNonNull(cacheManager.getCache(BlogPostRepository.ID_BY_SLUG_CACHE)).clear();
         }
-        return result;
+    }
+
+    /**
+     * Search the blogPosts by their title, description and content, the best matches first.
+     *
+     * @param queryString the words to search, accents and case are ignored.
+     * @param language the language of the texts to search, {@code en} or {@code vi}.
+     * @param pageable the pagination information, its sort is ignored.
+     * @return the matching blogPosts, with a highlighted snippet of the matching text.
+     */
+    @Transactional(readOnly = true)
+    public Page<BlogPostSearchResultDTO> search(String queryString, String language, Pageable pageable) {
+        log.debug("Request to search BlogPosts : {}, {}", queryString, language);
+        String query = SearchTextUtils.normalize(queryString);
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        Page<Object[]> hits = "en".equals(language)
+            ? blogPostRepository.searchBlogPostsEn(query, HEADLINE_OPTIONS, unsorted)
+            : blogPostRepository.searchBlogPostsVi(query, HEADLINE_OPTIONS, unsorted);
+
+        return hits.map(hit -> {
+            BlogPostSearchResultDTO result = new BlogPostSearchResultDTO();
+            result.setId(((Number) hit[0]).longValue());
+            result.setBlogPostTitleVi((String) hit[1]);
+            result.setBlogPostTitleEn((String) hit[2]);
+            result.setBlogPostSlug((String) hit[3]);
+            result.setThumbnailLink((String) hit[4]);
+            // the snippet is cut from the plain content, so it is escaped before the selection markers become HTML
+            result.setSnippet(
+                HtmlUtils.htmlEscape((String) hit[5]).replace(HEADLINE_START, "<mark>").replace(HEADLINE_STOP, "</mark>")
+            );
+            return result;
+        });
     }
 
     /**
@@ -171,6 +291,31 @@ public class BlogPostService {
         return blogPostRepository.findById(id);
     }
 
+    /**
+     * Get one blogPost by slug.
+     * <p>
+     * The id of the slug is cached, then the blogPost is read by id, from the second level cache.
+     * A slug changed in a transaction not yet committed can still be cached, it is then looked up again.
+     *
+     * @param slug the slug of the entity.
+     * @return the entity.
+     */
+    @Transactional(readOnly = true)
+    public Optional<BlogPost> findOneBySlug(String slug) {
+        log.debug("Request to get BlogPost by slug : {}", slug);
+        Long id = blogPostRepository.findIdByBlogPostSlug(slug);
+        if (id == null) {
+            return Optional.empty();
+        }
+        Optional<BlogPost> blogPost = blogPostRepository.findById(id).filter(found -> slug.equals(found.getBlogPostSlug()));
+        if (blogPost.isEmpty()) {
+            Objects.requireNonNull(cacheManager.getCache(BlogPostRepository.ID_BY_SLUG_CACHE)).evict(slug);
+            id = blogPostRepository.findIdByBlogPostSlug(slug);
+            return id != null ? blogPostRepository.findById(id) : Optional.empty();
+        }
+        return blogPost;
+    }
+
     /**
      * Delete the blogPost by id.
      *
@@ -179,17 +324,64 @@ public class BlogPostService {
     public void delete(Long id) {
         log.debug("Request to delete BlogPost : {}", id);
         blogPostRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(new ContentChangedEvent(BlogPost.class, id));
+    }
+
+    /**
+     * Flag as published the blogPosts whose publication time has come.
+     *
+     * @return the ids of the blogPosts published.
+     */
+    public List<Long> publishDuePosts() {
+        List<Long> ids = blogPostRepository.findIdsToPublish(ZonedDateTime.now());
+        if (!ids.isEmpty()) {
+            log.debug("Request to publish BlogPosts : {}", ids);
+            // the bulk update also evicts the blogPosts from the second-level cache
+            blogPostRepository.publishByIdIn(ids);
+            applicationEventPublisher.publishEvent(new BlogPostsPublishedEvent(ids));
+        }
+        return ids;
     }
 
+    /**
+     * Record a view of the blogPost.
+     * <p>
+     * The view is buffered by {@link BlogPostViewService} and written later. The blogPost is read from the second level cache,
+     * which is only refreshed after each flush of the views, then detached so the buffered views shown never get written.
+     *
+     * @param id the id of the entity.
+     * @return the entity, with its number of views including the buffered ones.
+     */
+    @Transactional(readOnly = true)
     public BlogPost updateViews(Long id) {
         log.debug("Request to update BlogPost views : {}", id);
-        Optional<BlogPost> blogPost = blogPostRepository.findById(id);
-        if (blogPost.isPresent()) {
-            blogPost.get().setNumberOfViews(blogPost.get().getNumberOfViews() != null ? blogPost.get().getNumberOfViews() + 1 : 1);
-            BlogPost updatedBlogPost = blogPostRepository.save(blogPost.get());
-            return updatedBlogPost;
-        } else {
-            throw new BadRequestAlertException("Invalid id", "blogPost", "idnull");
-        }
+        BlogPost blogPost = blogPostRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Invalid id", "blogPost", "idnull"));
+        blogPostViewService.recordView(id);
+        entityManager.detach(blogPost);
+        long storedViews = blogPost.getNumberOfViews() != null ? blogPost.getNumberOfViews() : 0;
+        blogPost.setNumberOfViews((int) Math.min(storedViews + blogPostViewService.getPendingViews(id), Integer.MAX_VALUE));
+        return blogPost;
+    }
+
+    /**
+     * Save a blogPost with its derived columns: the search columns, not mapped on the entity, are written once its row exists.
+     */
+    private BlogPost saveAndIndex(BlogPost blogPost) {
+        blogPostSearchIndexer.index(blogPost);
+        blogPost.setPublished(isPublished(blogPost));
+        BlogPost result = blogPostRepository.saveAndFlush(blogPost);
+        blogPostSearchIndexer.indexSearchText(result);
+        return publishContentChanged(result);
+    }
+
+    private boolean isPublished(BlogPost blogPost) {
+        return blogPost.getTimeToPublish() != null && !blogPost.getTimeToPublish().isAfter(ZonedDateTime.now());
+    }
+
+    private BlogPost publishContentChanged(BlogPost blogPost) {
+        applicationEventPublisher.publishEvent(new ContentChangedEvent(BlogPost.class, blogPost.getId()));
+        return blogPost;
     }
 }
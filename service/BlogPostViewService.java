@@ -0,0 +1,176 @@
+package com.hcmus.chemistry.service;
+
+import com.hcmus.chemistry.config.ApplicationProperties;
+import com.hcmus.chemistry.domain.BlogPost;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Write-behind counter for {@link BlogPost} views.
+ * <p>
+ * Views are accumulated in memory, one {@link LongAdder} per blog post, and periodically written to the database
+ * as a batch of relative {@code UPDATE} statements, so concurrent readers never contend on the blog post row.
+ * Ids come from anonymous clients, so at most {@code application.view-counter.max-pending-blog-posts} blog posts are buffered,
+ * unknown ids are dropped at the next flush, and blog posts without new views since the previous flush leave the buffer.
+ */
+@Service
+public class BlogPostViewService {
+
+    public static final String PENDING_VIEWS_METER_NAME = "blog-post.views.pending";
+    public static final String FLUSHED_VIEWS_METER_NAME = "blog-post.views.flushed";
+    public static final String DROPPED_VIEWS_METER_NAME = "blog-post.views.dropped";
+
+    private static final String INCREMENT_VIEWS_SQL =
+        "UPDATE blog_post SET number_of_views = COALESCE(number_of_views, 0) + ? WHERE id = ?";
+
+    private final Logger log = LoggerFactory.getLogger(BlogPostViewService.class);
+
+    private final Map<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Counter flushedViewsCounter;
+
+    private final Counter droppedViewsCounter;
+
+    private final int maxPendingBlogPosts;
+
+    public BlogPostViewService(
+        JdbcTemplate jdbcTemplate,
+        EntityManagerFactory entityManagerFactory,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.maxPendingBlogPosts = applicationProperties.getViewCounter().getMaxPendingBlogPosts();
+        Gauge
+            .builder(PENDING_VIEWS_METER_NAME, this, BlogPostViewService::countPendingViews)
+            .baseUnit("views")
+            .description("Number of blog post views buffered in memory and not yet written to the database.")
+            .register(registry);
+        this.flushedViewsCounter =
+            Counter
+                .builder(FLUSHED_VIEWS_METER_NAME)
+                .baseUnit("views")
+                .description("Number of blog post views written to the database.")
+                .register(registry);
+        this.droppedViewsCounter =
+            Counter
+                .builder(DROPPED_VIEWS_METER_NAME)
+                .baseUnit("views")
+                .description("Number of blog post views dropped because too many blog posts had buffered views.")
+                .register(registry);
+    }
+
+    /**
+     * Record one view of a blog post.
+     *
+     * @param id the id of the blog post.
+     */
+    public void recordView(Long id) {
+        LongAdder adder = pendingViews.get(id);
+        if (adder == null) {
+            if (pendingViews.size() >= maxPendingBlogPosts) {
+                droppedViewsCounter.increment();
+                return;
+            }
+            adder = pendingViews.computeIfAbsent(id, key -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    /**
+     * Record one view of each given blog post.
+     * <p>
+     * Ids are not checked against the database here: views of unknown blog posts are dropped at the next flush.
+     *
+     * @param ids the ids of the blog posts.
+     */
+    public void recordViews(Collection<Long> ids) {
+        ids.stream().filter(Objects::nonNull).forEach(this::recordView);
+    }
+
+    /**
+     * Get the number of views of a blog post which are not yet written to the database.
+     *
+     * @param id the id of the blog post.
+     * @return the number of buffered views.
+     */
+    public long getPendingViews(Long id) {
+        LongAdder adder = pendingViews.get(id);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * Write the buffered views to the database.
+     * <p>
+     * {@link LongAdder#sumThenReset()} atomically drains each cell, so views recorded while flushing are kept for the next run.
+     * Blog posts that no longer exist, and those without views since the previous flush, are removed from the buffer.
+     */
+    @Scheduled(fixedDelayString = "${application.view-counter.flush-interval:5000}")
+    public synchronized void flush() {
+        List<Long> ids = new ArrayList<>();
+        List<Object[]> batchArgs = new ArrayList<>();
+        pendingViews.forEach((id, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta > 0) {
+                ids.add(id);
+                batchArgs.add(new Object[] { delta, id });
+            } else if (pendingViews.remove(id, adder) && adder.sum() > 0) {
+                // a view recorded while the idle entry was removed is put back
+                pendingViews.computeIfAbsent(id, key -> new LongAdder()).add(adder.sumThenReset());
+            }
+        });
+        if (batchArgs.isEmpty()) {
+            return;
+        }
+        log.debug("Flushing views of {} BlogPosts", batchArgs.size());
+        int[] updateCounts;
+        try {
+            updateCounts = jdbcTemplate.batchUpdate(INCREMENT_VIEWS_SQL, batchArgs);
+        } catch (RuntimeException e) {
+            log.warn("Could not flush BlogPost views, they will be retried: {}", e.getMessage());
+            batchArgs.forEach(args -> pendingViews.computeIfAbsent((Long) args[1], key -> new LongAdder()).add((Long) args[0]));
+            return;
+        }
+        long flushed = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (updateCounts[i] == 0) {
+                pendingViews.remove(id);
+            } else {
+                flushed += (Long) batchArgs.get(i)[0];
+                entityManagerFactory.getCache().evict(BlogPost.class, id);
+            }
+        }
+        flushedViewsCounter.increment(flushed);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.debug("Flushing BlogPost views before shutdown");
+        flush();
+    }
+
+    private double countPendingViews() {
+        return pendingViews.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+}
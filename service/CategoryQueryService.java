@@ -11,6 +11,7 @@ import com.hcmus.chemistry.service.criteria.CategoryCriteria;
 import java.time.ZonedDateTime;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
@@ -40,9 +41,16 @@ public class CategoryQueryService extends QueryService<Category> {
 
     private final BlogPostQueryService blogPosQueryService;
 
-    public CategoryQueryService(CategoryRepository categoryRepository, BlogPostQueryService blogPosQueryService) {
+    private final CriteriaCountService criteriaCountService;
+
+    public CategoryQueryService(
+        CategoryRepository categoryRepository,
+        BlogPostQueryService blogPosQueryService,
+        CriteriaCountService criteriaCountService
+    ) {
         this.categoryRepository = categoryRepository;
         this.blogPosQueryService = blogPosQueryService;
+        this.criteriaCountService = criteriaCountService;
     }
 
     /**
@@ -77,9 +85,30 @@ public class CategoryQueryService extends QueryService<Category> {
      */
     @Transactional(readOnly = true)
     public long countByCriteria(CategoryCriteria criteria) {
-        log.debug("count by criteria : {}", criteria);
+        return countByCriteria(criteria, false);
+    }
+
+    /**
+     * Return the number of matching entities, cached until a category or a blogPost changes.
+     * <p>
+     * When approximate totals are accepted and nothing is filtered, a large table is not counted,
+     * the planner estimate is returned instead.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param approximate Whether an estimate can be returned.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(CategoryCriteria criteria, boolean approximate) {
+        log.debug("count by criteria : {}, approximate: {}", criteria, approximate);
+        CategoryCriteria key = criteria != null ? criteria : new CategoryCriteria();
+        if (approximate && key.equals(new CategoryCriteria())) {
+            Optional<Long> estimate = criteriaCountService.trustedEstimate(categoryRepository.estimateCount());
+            if (estimate.isPresent()) {
+                return estimate.get();
+            }
+        }
         final Specification<Category> specification = createSpecification(criteria);
-        return categoryRepository.count(specification);
+        return criteriaCountService.count(CategoryRepository.COUNT_BY_CRITERIA_CACHE, key, () -> categoryRepository.count(specification));
     }
 
     /**
@@ -5,18 +5,25 @@ import com.hcmus.chemistry.domain.Category;
 import com.hcmus.chemistry.repository.CategoryRepository;
 import com.hcmus.chemistry.security.SecurityUtils;
 import com.hcmus.chemistry.service.criteria.BlogPostCriteria;
+import com.hcmus.chemistry.service.event.ContentChangedEvent;
 import java.time.ZonedDateTime;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 import tech.jhipster.service.filter.LongFilter;
 import tech.jhipster.service.filter.ZonedDateTimeFilter;
 
@@ -33,9 +40,20 @@ public class CategoryService {
 
     private final BlogPostQueryService blogPosQueryService;
 
-    public CategoryService(CategoryRepository categoryRepository, BlogPostQueryService blogPosQueryService) {
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final CacheManager cacheManager;
+
+    public CategoryService(
+        CategoryRepository categoryRepository,
+        BlogPostQueryService blogPosQueryService,
+        ApplicationEventPublisher applicationEventPublisher,
+        CacheManager cacheManager
+    ) {
         this.categoryRepository = categoryRepository;
         this.blogPosQueryService = blogPosQueryService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.cacheManager = cacheManager;
     }
 
     /**
@@ -49,7 +67,7 @@ public class CategoryService {
         if (category.getCreatedBy() == null) {
             category.setCreatedBy(SecurityUtils.getCurrentUserLogin().orElse(null));
         }
-        return categoryRepository.save(category);
+        return publishContentChanged(categoryRepository.save(category));
     }
 
     /**
@@ -60,7 +78,7 @@ public class CategoryService {
      */
     public Category update(Category category) {
         log.debug("Request to update Category : {}", category);
-        return categoryRepository.save(category);
+        return publishContentChanged(categoryRepository.save(category));
     }
 
     /**
@@ -90,10 +108,17 @@ public class CategoryService {
                 if (category.getCreatedTime() != null) {
                     existingCategory.setCreatedTime(category.getCreatedTime());
                 }
+                if (category.getFeatured() != null) {
+                    existingCategory.setFeatured(category.getFeatured());
+                }
+                if (category.getHomepagePosition() != null) {
+                    existingCategory.setHomepagePosition(category.getHomepagePosition());
+                }
 
                 return existingCategory;
             })
-            .map(categoryRepository::save);
+            .map(categoryRepository::save)
+            .map(this::publishContentChanged);
     }
 
     /**
@@ -128,8 +153,14 @@ public class CategoryService {
     public void delete(Long id) {
         log.debug("Request to delete Category : {}", id);
         categoryRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(new ContentChangedEvent(Category.class, id));
     }
 
+    /**
+     * Get the categories which have a section on the homepage, in their homepage order.
+     *
+     * @return the featured categories, from the cache.
+     */
     @Transactional(readOnly = true)
     public List<Category> getHomePageCategories() {
         log.debug("Request to get Categories for homepage");
@@ -141,4 +172,24 @@ public class CategoryService {
         log.debug("Request to get all Categories with conditions");
         return categoryRepository.getCategoriesWithConditions();
     }
+
+    /**
+     * Clear the cached homepage categories once the transaction which changed a category is committed.
+     * <p>
+     * This runs before the other listeners, so the homepage is rebuilt from the new selection.
+     *
+     * @param event the change.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (Category.class.equals(event.getEntityType())) {
+            Objects.requireNonNull(cacheManager.getCache(CategoryRepository.HOMEPAGE_CATEGORIES_CACHE)).clear();
+        }
+    }
+
+    private Category publishContentChanged(Category category) {
+        applicationEventPublisher.publishEvent(new ContentChangedEvent(Category.class, category.getId()));
+        return category;
+    }
 }
@@ -0,0 +1,202 @@
+package com.hcmus.chemistry.service;
+
+import com.hcmus.chemistry.domain.Category;
+import com.hcmus.chemistry.domain.dto.CategoryTreeNodeDTO;
+import com.hcmus.chemistry.domain.enumeration.CurrentStatus;
+import com.hcmus.chemistry.repository.CategoryRepository;
+import com.hcmus.chemistry.service.event.ContentChangedEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service keeping the tree of the {@link Category}s in memory.
+ * <p>
+ * The tree is built from a single query, then replaced as a whole once a category change is committed,
+ * so readers always see a consistent snapshot and never load the subcategories one level at a time.
+ */
+@Service
+public class CategoryTreeService {
+
+    private final Logger log = LoggerFactory.getLogger(CategoryTreeService.class);
+
+    private final AtomicReference<CategoryTree> tree = new AtomicReference<>();
+
+    private final CategoryRepository categoryRepository;
+
+    public CategoryTreeService(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * Get the current category tree, building it on first use.
+     *
+     * @return the category tree.
+     */
+    public CategoryTree getTree() {
+        CategoryTree current = tree.get();
+        return current != null ? current : refresh();
+    }
+
+    /**
+     * Rebuild the category tree once the transaction which changed a category is committed.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (Category.class.equals(event.getEntityType())) {
+            refresh();
+        }
+    }
+
+    /**
+     * Rebuild the category tree from the database.
+     *
+     * @return the new category tree.
+     */
+    public synchronized CategoryTree refresh() {
+        Map<Long, Object[]> categories = new LinkedHashMap<>();
+        Map<Long, List<Long>> subCategoryIds = new HashMap<>();
+        for (Object[] category : categoryRepository.findAllForTree()) {
+            categories.put((Long) category[0], category);
+        }
+        List<Long> rootIds = new ArrayList<>();
+        categories.forEach((id, category) -> {
+            Long parentId = (Long) category[4];
+            if (parentId == null || !categories.containsKey(parentId)) {
+                rootIds.add(id);
+            } else {
+                subCategoryIds.computeIfAbsent(parentId, key -> new ArrayList<>()).add(id);
+            }
+        });
+
+        CategoryTreeBuilder builder = new CategoryTreeBuilder(categories, subCategoryIds);
+        List<CategoryTreeNodeDTO> roots = new ArrayList<>();
+        for (Long rootId : rootIds) {
+            roots.add(builder.build(rootId, Collections.emptyList()));
+        }
+        if (builder.nodes.size() < categories.size()) {
+            log.warn(
+                "{} categories are not reachable from a root category, their parents form a cycle",
+                categories.size() - builder.nodes.size()
+            );
+        }
+        CategoryTree rebuilt = new CategoryTree(roots, builder.nodes, builder.ancestorIds, builder.descendantIds);
+        tree.set(rebuilt);
+        log.debug("Rebuilt the category tree, {} categories", builder.nodes.size());
+        return rebuilt;
+    }
+
+    private static final class CategoryTreeBuilder {
+
+        private final Map<Long, Object[]> categories;
+
+        private final Map<Long, List<Long>> subCategoryIds;
+
+        private final Map<Long, CategoryTreeNodeDTO> nodes = new HashMap<>();
+
+        private final Map<Long, List<Long>> ancestorIds = new HashMap<>();
+
+        private final Map<Long, Set<Long>> descendantIds = new HashMap<>();
+
+        private CategoryTreeBuilder(Map<Long, Object[]> categories, Map<Long, List<Long>> subCategoryIds) {
+            this.categories = categories;
+            this.subCategoryIds = subCategoryIds;
+        }
+
+        private CategoryTreeNodeDTO build(Long id, List<Long> ancestors) {
+            List<Long> ancestorsOfSubCategories = new ArrayList<>(ancestors);
+            ancestorsOfSubCategories.add(id);
+            List<CategoryTreeNodeDTO> subCategories = new ArrayList<>();
+            Set<Long> descendants = new HashSet<>();
+            for (Long subCategoryId : subCategoryIds.getOrDefault(id, Collections.emptyList())) {
+                subCategories.add(build(subCategoryId, Collections.unmodifiableList(ancestorsOfSubCategories)));
+                descendants.add(subCategoryId);
+                descendants.addAll(descendantIds.get(subCategoryId));
+            }
+
+            Object[] category = categories.get(id);
+            CategoryTreeNodeDTO node = new CategoryTreeNodeDTO(
+                id,
+                (String) category[1],
+                (String) category[2],
+                (CurrentStatus) category[3],
+                (Long) category[4],
+                subCategories
+            );
+            nodes.put(id, node);
+            ancestorIds.put(id, ancestors);
+            descendantIds.put(id, Collections.unmodifiableSet(descendants));
+            return node;
+        }
+    }
+
+    /**
+     * An immutable snapshot of the category tree, with the ancestors and descendants of each category precomputed.
+     */
+    public static final class CategoryTree {
+
+        private final List<CategoryTreeNodeDTO> roots;
+
+        private final Map<Long, CategoryTreeNodeDTO> nodes;
+
+        private final Map<Long, List<Long>> ancestorIds;
+
+        private final Map<Long, Set<Long>> descendantIds;
+
+        private CategoryTree(
+            List<CategoryTreeNodeDTO> roots,
+            Map<Long, CategoryTreeNodeDTO> nodes,
+            Map<Long, List<Long>> ancestorIds,
+            Map<Long, Set<Long>> descendantIds
+        ) {
+            this.roots = Collections.unmodifiableList(roots);
+            this.nodes = Collections.unmodifiableMap(nodes);
+            this.ancestorIds = Collections.unmodifiableMap(ancestorIds);
+            this.descendantIds = Collections.unmodifiableMap(descendantIds);
+        }
+
+        /**
+         * @return the categories without parent, with their subcategories.
+         */
+        public List<CategoryTreeNodeDTO> getRoots() {
+            return roots;
+        }
+
+        /**
+         * @param id the id of the category.
+         * @return the category with its subcategories, or empty if it does not exist.
+         */
+        public Optional<CategoryTreeNodeDTO> getCategory(Long id) {
+            return Optional.ofNullable(nodes.get(id));
+        }
+
+        /**
+         * @param id the id of the category.
+         * @return the ids of the parents of the category, the root first, or an empty list if it does not exist.
+         */
+        public List<Long> getAncestorIds(Long id) {
+            return ancestorIds.getOrDefault(id, Collections.emptyList());
+        }
+
+        /**
+         * @param id the id of the category.
+         * @return the ids of all the subcategories of the category, at any depth, or an empty set if it does not exist.
+         */
+        public Set<Long> getDescendantIds(Long id) {
+            return descendantIds.getOrDefault(id, Collections.emptySet());
+        }
+    }
+}
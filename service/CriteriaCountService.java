@@ -0,0 +1,90 @@
+package com.hcmus.chemistry.service;
+
+import com.hcmus.chemistry.domain.Banner;
+import com.hcmus.chemistry.domain.BlogPost;
+import com.hcmus.chemistry.domain.Category;
+import com.hcmus.chemistry.repository.BannerRepository;
+import com.hcmus.chemistry.repository.BlogPostRepository;
+import com.hcmus.chemistry.repository.CategoryRepository;
+import com.hcmus.chemistry.service.event.ContentChangedEvent;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tech.jhipster.service.Criteria;
+
+/**
+ * Service caching the counts of the criteria queries, so listings do not run a second full query on every request.
+ * <p>
+ * Counts are cached per entity and per criteria, the criteria classes comparing by their filters, and cleared when
+ * an entity they depend on changes. Unfiltered counts of large tables can instead be estimated from the planner statistics.
+ */
+@Service
+public class CriteriaCountService {
+
+    /**
+     * Below this number of rows, the planner estimate is not trusted and the rows are counted.
+     */
+    public static final long ESTIMATED_COUNT_THRESHOLD = 10_000;
+
+    private final Logger log = LoggerFactory.getLogger(CriteriaCountService.class);
+
+    private final CacheManager cacheManager;
+
+    public CriteriaCountService(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Get the number of entities matching the criteria, counting them only if it is not cached.
+     *
+     * @param cacheName the name of the count cache of the entity.
+     * @param criteria the criteria, copied to make the cache key.
+     * @param exactCount counts the matching entities in the database.
+     * @return the number of matching entities.
+     */
+    public long count(String cacheName, Criteria criteria, Supplier<Long> exactCount) {
+        Long count = Objects.requireNonNull(cacheManager.getCache(cacheName)).get(criteria.copy(), exactCount::get);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Keep the planner estimate of the number of rows of a table only when it is large enough to be trusted.
+     *
+     * @param estimatedCount the estimate from {@code pg_class.reltuples}, negative or {@code null} if the table was never analyzed.
+     * @return the estimate, or empty if the rows should be counted.
+     */
+    public Optional<Long> trustedEstimate(Long estimatedCount) {
+        return Optional.ofNullable(estimatedCount).filter(count -> count >= ESTIMATED_COUNT_THRESHOLD);
+    }
+
+    /**
+     * Clear the cached counts once the transaction which changed an entity is committed, before the caches are rebuilt.
+     * <p>
+     * Blog posts are filtered by their category and its subcategories, and categories by their blog posts,
+     * so a change of either clears the counts of both.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (BlogPost.class.equals(event.getEntityType()) || Category.class.equals(event.getEntityType())) {
+            clear(BlogPostRepository.COUNT_BY_CRITERIA_CACHE);
+            clear(CategoryRepository.COUNT_BY_CRITERIA_CACHE);
+        } else if (Banner.class.equals(event.getEntityType())) {
+            clear(BannerRepository.COUNT_BY_CRITERIA_CACHE);
+        }
+    }
+
+    private void clear(String cacheName) {
+        log.debug("Clearing the cached counts {}", cacheName);
+        Objects.requireNonNull(cacheManager.getCache(cacheName)).clear();
+    }
+}
@@ -0,0 +1,175 @@
+package com.hcmus.chemistry.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hcmus.chemistry.config.ApplicationProperties;
+import com.hcmus.chemistry.domain.Category;
+import com.hcmus.chemistry.domain.dto.BlogPostDTO;
+import com.hcmus.chemistry.domain.dto.HomepageCategoryDTO;
+import com.hcmus.chemistry.domain.dto.HomepageDTO;
+import com.hcmus.chemistry.domain.enumeration.CurrentStatus;
+import com.hcmus.chemistry.service.criteria.BannerCriteria;
+import com.hcmus.chemistry.service.event.ContentChangedEvent;
+import com.hcmus.chemistry.service.utils.UtilsService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service building the homepage payload: the banners, the carousel and the latest blog posts of the homepage categories.
+ * <p>
+ * The payload is serialized once and kept in memory with its ETag, so serving the homepage does not touch the database.
+ * It is rebuilt after each {@link ContentChangedEvent}, including the publication of the blog posts whose time has come,
+ * and every {@code application.homepage.refresh-interval} to show the changes made on other nodes.
+ */
+@Service
+public class HomepageService {
+
+    private final Logger log = LoggerFactory.getLogger(HomepageService.class);
+
+    private final AtomicReference<Homepage> homepage = new AtomicReference<>();
+
+    private final BlogPostService blogPostService;
+
+    private final CategoryService categoryService;
+
+    private final BannerQueryService bannerQueryService;
+
+    private final ObjectMapper objectMapper;
+
+    private final int postsPerCategory;
+
+    public HomepageService(
+        BlogPostService blogPostService,
+        CategoryService categoryService,
+        BannerQueryService bannerQueryService,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) {
+        this.blogPostService = blogPostService;
+        this.categoryService = categoryService;
+        this.bannerQueryService = bannerQueryService;
+        this.objectMapper = objectMapper;
+        this.postsPerCategory = applicationProperties.getHomepage().getPostsPerCategory();
+    }
+
+    /**
+     * Get the homepage payload, building it on first use.
+     *
+     * @return the serialized homepage and its ETag.
+     */
+    public Homepage getHomepage() {
+        Homepage current = homepage.get();
+        return current != null ? current : refresh();
+    }
+
+    /**
+     * Rebuild the homepage once the transaction which changed its content is committed.
+     *
+     * @param event the change.
+     */
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        log.debug("Rebuilding the homepage after {}", event);
+        refresh();
+    }
+
+    @Scheduled(
+        initialDelayString = "${application.homepage.refresh-interval:60000}",
+        fixedDelayString = "${application.homepage.refresh-interval:60000}"
+    )
+    public void refreshPeriodically() {
+        refresh();
+    }
+
+    /**
+     * Rebuild the homepage payload.
+     * <p>
+     * The previous payload, and its ETag, are kept when the content did not change, so clients keep their cached copy.
+     *
+     * @return the current homepage.
+     */
+    public synchronized Homepage refresh() {
+        HomepageDTO homepageDTO = new HomepageDTO();
+        homepageDTO.setBanners(bannerQueryService.findByCriteria(enabledBannersCriteria()));
+        homepageDTO.setCarousel(blogPostService.findBlogPostsCarousel());
+        List<Category> homepageCategories = categoryService.getHomePageCategories();
+        SortedSet<Long> categoryIds = homepageCategories.stream().map(Category::getId).collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, List<BlogPostDTO>> blogPosts = categoryIds.isEmpty()
+            ? Collections.emptyMap()
+            : blogPostService.findLatestByCategories(categoryIds, postsPerCategory);
+        List<HomepageCategoryDTO> categories = new ArrayList<>();
+        for (Category category : homepageCategories) {
+            categories.add(toHomepageCategory(category, blogPosts.getOrDefault(category.getId(), Collections.emptyList())));
+        }
+        homepageDTO.setCategories(categories);
+
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(homepageDTO);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the homepage", e);
+        }
+        String eTag = "\"" + UtilsService.toHex(UtilsService.sha256().digest(body)) + "\"";
+        Homepage current = homepage.get();
+        if (current != null && current.getETag().equals(eTag)) {
+            return current;
+        }
+        Homepage rebuilt = new Homepage(body, eTag);
+        homepage.set(rebuilt);
+        log.debug("Rebuilt the homepage, ETag {}", eTag);
+        return rebuilt;
+    }
+
+    private HomepageCategoryDTO toHomepageCategory(Category category, List<BlogPostDTO> blogPosts) {
+        HomepageCategoryDTO homepageCategory = new HomepageCategoryDTO();
+        homepageCategory.setId(category.getId());
+        homepageCategory.setCategoryName(category.getCategoryName());
+        homepageCategory.setCategorySlug(category.getCategorySlug());
+        homepageCategory.setBlogPosts(blogPosts);
+        return homepageCategory;
+    }
+
+    private BannerCriteria enabledBannersCriteria() {
+        BannerCriteria criteria = new BannerCriteria();
+        BannerCriteria.CurrentStatusFilter status = new BannerCriteria.CurrentStatusFilter();
+        status.setEquals(CurrentStatus.ENABLED);
+        criteria.setBannerStatus(status);
+        return criteria;
+    }
+
+    /**
+     * A serialized homepage payload.
+     */
+    public static final class Homepage {
+
+        private final byte[] body;
+
+        private final String eTag;
+
+        private Homepage(byte[] body, String eTag) {
+            this.body = body;
+            this.eTag = eTag;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.hcmus.chemistry.service;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.hcmus.chemistry.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+/**
+ * Size-bounded, least recently used cache of the hot uploaded images.
+ * <p>
+ * Payloads are held in direct {@link ByteBuffer}s, outside of the heap, and evicted once their total size exceeds
+ * {@code application.image-cache.max-bytes}.
+ */
+@Service
+public class ImageCacheService {
+
+    public static final String CACHE_METER_PREFIX = "image.cache.";
+
+    private final long maxBytes;
+
+    private final long maxEntryBytes;
+
+    private final LinkedHashMap<String, ByteBuffer> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Buffers being filled by the requests which missed the cache, by image.
+     */
+    private final Map<String, ByteBuffer> loadingBuffers = new HashMap<>();
+
+    private long bytes;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    private final Counter evictionCounter;
+
+    public ImageCacheService(ApplicationProperties applicationProperties, MeterRegistry registry) {
+        this.maxBytes = applicationProperties.getImageCache().getMaxBytes();
+        this.maxEntryBytes = applicationProperties.getImageCache().getMaxEntryBytes();
+        this.hitCounter = Counter.builder(CACHE_METER_PREFIX + "hits").description("Number of images served from memory.").register(registry);
+        this.missCounter =
+            Counter.builder(CACHE_METER_PREFIX + "misses").description("Number of cacheable images not found in memory.").register(registry);
+        this.evictionCounter =
+            Counter.builder(CACHE_METER_PREFIX + "evictions").description("Number of images evicted from memory.").register(registry);
+        Gauge
+            .builder(CACHE_METER_PREFIX + "size", this, ImageCacheService::getBytes)
+            .baseUnit("bytes")
+            .description("Number of bytes of images held in memory.")
+            .register(registry);
+        Gauge
+            .builder(CACHE_METER_PREFIX + "hit.ratio", this, ImageCacheService::getHitRatio)
+            .description("Ratio of the images served from memory.")
+            .register(registry);
+    }
+
+    /**
+     * Get a cached image.
+     * <p>
+     * A miss is only counted by {@link #reserve(String, long)}, once the image is known to be small enough to be cached.
+     *
+     * @param fileName the name of the image.
+     * @return the image, or empty if it is not cached.
+     */
+    public Optional<Resource> get(String fileName) {
+        ByteBuffer buffer;
+        synchronized (this) {
+            buffer = entries.get(fileName);
+        }
+        if (buffer == null) {
+            return Optional.empty();
+        }
+        hitCounter.increment();
+        return Optional.of(new ByteBufferResource(fileName, buffer.asReadOnlyBuffer()));
+    }
+
+    /**
+     * Whether an image of the given size may be cached.
+     *
+     * @param size the size of the image, in bytes.
+     * @return true if the image fits in the cache.
+     */
+    public boolean isCacheable(long size) {
+        return size >= 0 && size <= maxEntryBytes && size <= maxBytes;
+    }
+
+    /**
+     * Accept an image missing from the cache, and allocate the buffer it should be read into before calling {@link #put(String, ByteBuffer)}.
+     * <p>
+     * Images too large to be cached, or already being read by another request, are refused and should be streamed from the store,
+     * so no buffer is allocated for them.
+     *
+     * @param fileName the name of the image.
+     * @param size the size of the image, in bytes.
+     * @return the buffer to fill, or empty if the image is not cached.
+     */
+    public Optional<ByteBuffer> reserve(String fileName, long size) {
+        if (!isCacheable(size)) {
+            return Optional.empty();
+        }
+        missCounter.increment();
+        synchronized (this) {
+            if (entries.containsKey(fileName) || loadingBuffers.containsKey(fileName)) {
+                return Optional.empty();
+            }
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+            loadingBuffers.put(fileName, buffer);
+            return Optional.of(buffer);
+        }
+    }
+
+    /**
+     * Cache an image read into the buffer returned by {@link #reserve(String, long)}, evicting the least recently used ones if needed.
+     * <p>
+     * The image is not cached if it was evicted while it was read, since it may have been deleted meanwhile.
+     *
+     * @param fileName the name of the image.
+     * @param buffer the content of the image, from position to limit.
+     * @return the image.
+     */
+    public synchronized Resource put(String fileName, ByteBuffer buffer) {
+        Resource resource = new ByteBufferResource(fileName, buffer.asReadOnlyBuffer());
+        if (loadingBuffers.get(fileName) != buffer) {
+            return resource;
+        }
+        loadingBuffers.remove(fileName);
+        entries.put(fileName, buffer);
+        bytes += buffer.remaining();
+        Iterator<Map.Entry<String, ByteBuffer>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().remaining();
+            eldest.remove();
+            evictionCounter.increment();
+        }
+        return resource;
+    }
+
+    /**
+     * Give up caching an image which could not be read into the buffer returned by {@link #reserve(String, long)}.
+     *
+     * @param fileName the name of the image.
+     * @param buffer the buffer.
+     */
+    public synchronized void cancel(String fileName, ByteBuffer buffer) {
+        if (loadingBuffers.get(fileName) == buffer) {
+            loadingBuffers.remove(fileName);
+        }
+    }
+
+    /**
+     * Remove an image from the cache, and prevent an ongoing read of the image from caching it.
+     *
+     * @param fileName the name of the image.
+     */
+    public synchronized void evict(String fileName) {
+        loadingBuffers.remove(fileName);
+        ByteBuffer buffer = entries.remove(fileName);
+        if (buffer != null) {
+            bytes -= buffer.remaining();
+        }
+    }
+
+    private synchronized long getBytes() {
+        return bytes;
+    }
+
+    private double getHitRatio() {
+        double lookups = hitCounter.count() + missCounter.count();
+        return lookups == 0 ? 0 : hitCounter.count() / lookups;
+    }
+
+    /**
+     * Resource reading a cached image, each stream starts from the beginning of the buffer.
+     */
+    private static final class ByteBufferResource extends AbstractResource {
+
+        private final String fileName;
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferResource(String fileName, ByteBuffer buffer) {
+            this.fileName = fileName;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public String getFilename() {
+            return fileName;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Cached image [" + fileName + "]";
+        }
+
+        @Override
+        public long contentLength() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteBufferBackedInputStream(buffer.duplicate());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.hcmus.chemistry.service;
+
+import com.hcmus.chemistry.config.ApplicationProperties;
+import com.hcmus.chemistry.domain.Banner;
+import com.hcmus.chemistry.domain.BlogPost;
+import com.hcmus.chemistry.repository.BannerRepository;
+import com.hcmus.chemistry.repository.BlogPostRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service deleting the content-addressed images which no {@link BlogPost} nor {@link Banner} links to anymore.
+ * <p>
+ * The thumbnail, description and content of the blog posts and the link of the banners are scanned for image links,
+ * in absolute or relative form, with or without a width.
+ */
+@Service
+public class ImageGarbageCollector {
+
+    private static final int BATCH_SIZE = 50;
+
+    private static final Pattern IMAGE_LINK = Pattern.compile("/public-images/([0-9a-f]{64}\\.[a-z]+)");
+
+    private final Logger log = LoggerFactory.getLogger(ImageGarbageCollector.class);
+
+    private final BlogPostRepository blogPostRepository;
+
+    private final BannerRepository bannerRepository;
+
+    private final ImageService imageService;
+
+    private final Duration gracePeriod;
+
+    private final AtomicBoolean collecting = new AtomicBoolean();
+
+    public ImageGarbageCollector(
+        BlogPostRepository blogPostRepository,
+        BannerRepository bannerRepository,
+        ImageService imageService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.blogPostRepository = blogPostRepository;
+        this.bannerRepository = bannerRepository;
+        this.imageService = imageService;
+        this.gracePeriod = applicationProperties.getImageStore().getGcGracePeriod();
+    }
+
+    /**
+     * Build the reference index of the content-addressed images.
+     *
+     * @return the names of the referenced images, mapped to the blog posts and banners referencing them,
+     * as {@code blogPost:<id>} and {@code banner:<id>}.
+     */
+    public Map<String, Set<String>> buildReferenceIndex() {
+        Map<String, Set<String>> references = new HashMap<>();
+        List<Object[]> blogPosts = blogPostRepository.findImageLinksAfter(0L, PageRequest.of(0, BATCH_SIZE));
+        while (!blogPosts.isEmpty()) {
+            for (Object[] blogPost : blogPosts) {
+                String owner = "blogPost:" + blogPost[0];
+                for (int i = 1; i < blogPost.length; i++) {
+                    addReferences(references, (String) blogPost[i], owner);
+                }
+            }
+            Long lastId = (Long) blogPosts.get(blogPosts.size() - 1)[0];
+            blogPosts = blogPostRepository.findImageLinksAfter(lastId, PageRequest.of(0, BATCH_SIZE));
+        }
+        for (Object[] banner : bannerRepository.findBannerLinks()) {
+            addReferences(references, (String) banner[1], "banner:" + banner[0]);
+        }
+        return references;
+    }
+
+    /**
+     * Delete the unreferenced images uploaded before the grace period.
+     * <p>
+     * This is scheduled to run every night at 03:00 by default. It reads every blog post and lists the whole store,
+     * so it runs on the async executor, and the single scheduler thread stays free for the view flushes and the publications.
+     */
+    @Async
+    @Scheduled(cron = "${application.image-store.gc-cron:0 0 3 * * ?}")
+    public void collectGarbage() {
+        if (!collecting.compareAndSet(false, true)) {
+            log.debug("Unreferenced images are already being collected");
+            return;
+        }
+        log.debug("Collecting unreferenced images");
+        try {
+            Map<String, Set<String>> references = buildReferenceIndex();
+            int deleted = imageService.deleteUnreferencedImages(new HashSet<>(references.keySet()), Instant.now().minus(gracePeriod));
+            log.info("Deleted {} unreferenced images, {} images are referenced", deleted, references.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not collect unreferenced images: {}", e.getMessage());
+        } finally {
+            collecting.set(false);
+        }
+    }
+
+    private void addReferences(Map<String, Set<String>> references, String text, String owner) {
+        if (text == null) {
+            return;
+        }
+        Matcher matcher = IMAGE_LINK.matcher(text);
+        while (matcher.find()) {
+            references.computeIfAbsent(matcher.group(1), name -> new HashSet<>()).add(owner);
+        }
+    }
+}
@@ -1,25 +1,499 @@
 package com.hcmus.chemistry.service;
 
+import com.hcmus.chemistry.config.ApplicationProperties;
 import com.hcmus.chemistry.service.dto.ImageResponse;
+import com.hcmus.chemistry.service.storage.BlobInfo;
+import com.hcmus.chemistry.service.storage.BlobStore;
 import com.hcmus.chemistry.service.utils.UtilsService;
+import com.hcmus.chemistry.web.rest.errors.BadRequestAlertException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+/**
+ * Service managing the uploaded images, stored in the {@link BlobStore}.
+ * <p>
+ * Images are identified by their key in the store: content-addressed images are sharded by the first two bytes of their hash,
+ * the images uploaded before are directly at the root of the store.
+ */
 @Service
 public class ImageService {
 
+    /**
+     * Directory, next to each image, of the sidecar blobs holding the ETag of the images which are not content-addressed.
+     */
+    private static final String ETAG_DIRECTORY = ".etag";
+
+    /**
+     * Extensions accepted for uploads. SVG is refused, as it can embed scripts run when the image is opened.
+     */
+    private static final Set<String> ALLOWED_EXTENSIONS = Set.of("png", "jpg", "jpeg", "gif", "webp");
+
+    /**
+     * Number of bytes read from the start of an upload to recognize its type.
+     */
+    private static final int SIGNATURE_LENGTH = 12;
+
+    private static final String ENTITY_NAME = "image";
+
+    /**
+     * Name of a content-addressed image: the hexadecimal SHA-256 of its content, followed by its extension.
+     */
+    private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("([0-9a-f]{2})([0-9a-f]{2})([0-9a-f]{60})\\.[a-z]+");
+
     private final Logger log = LoggerFactory.getLogger(ImageService.class);
 
+    /**
+     * ETags of the stored images, by key. Stored images never change, so a known ETag also spares checking the store.
+     */
+    private final Map<String, String> eTags = new ConcurrentHashMap<>();
+
+    /**
+     * Keys of the images known to be stored, so serving them, e.g. by a redirection to the store, does not check the store each time.
+     */
+    private final Set<String> storedKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Last-modified dates of the stored images, by key, in milliseconds since the epoch.
+     */
+    private final Map<String, Long> lastModifiedDates = new ConcurrentHashMap<>();
+
+    private final BlobStore blobStore;
+
+    private final ImageCacheService imageCacheService;
+
+    private final ImageVariantService imageVariantService;
+
+    private final long maxUploadBytes;
+
+    public ImageService(
+        BlobStore blobStore,
+        ImageCacheService imageCacheService,
+        ImageVariantService imageVariantService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.blobStore = blobStore;
+        this.imageCacheService = imageCacheService;
+        this.imageVariantService = imageVariantService;
+        this.maxUploadBytes = applicationProperties.getImageUpload().getMaxBytes();
+    }
+
+    /**
+     * Save an uploaded image under the SHA-256 of its content, so an image uploaded several times is stored once.
+     * <p>
+     * The upload is streamed to a temporary file, hashed on the way, then handed to the store under
+     * {@code <hash[0..2]>/<hash[2..4]>/<hash>.<extension>}, so its ETag is known without reading it again.
+     * The extension is taken from the content, whatever the name of the upload.
+     *
+     * @param image the uploaded image.
+     * @return the link of the saved image.
+     */
     public ImageResponse uploadImage(MultipartFile image) {
         log.debug("Request to upload image : {}", image);
-        return new ImageResponse(StringUtils.join("/api/public-images/", UtilsService.saveFile("upload", image)));
+        validateImage(image);
+        Path temporaryFile = null;
+        try {
+            temporaryFile = Files.createTempFile("image-upload-", ".tmp");
+            MessageDigest digest = UtilsService.sha256();
+            try (InputStream inputStream = new DigestInputStream(image.getInputStream(), digest)) {
+                copy(inputStream, temporaryFile);
+            }
+            String extension = detectExtension(temporaryFile);
+            String hash = UtilsService.toHex(digest.digest());
+            String fileName = hash + "." + extension;
+            String key = toKey(fileName);
+            // an image already stored is stored again, which restarts its grace period before the garbage collector
+            blobStore.put(key, temporaryFile);
+            eTags.put(key, "\"" + hash + "\"");
+            lastModifiedDates.remove(key);
+            imageVariantService.generateVariants(key);
+            return new ImageResponse(StringUtils.join("/api/public-images/", fileName));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save image " + image.getOriginalFilename(), e);
+        } finally {
+            deleteQuietly(temporaryFile);
+        }
+    }
+
+    /**
+     * Resolve the stored image to serve for an uploaded image: the image itself, or its variant best suited to the requested width.
+     * <p>
+     * A missing variant is generated in the background and the image itself is served meanwhile.
+     *
+     * @param fileName the name of the image.
+     * @param width the width requested by the client, in pixels, or null for the image itself.
+     * @return the key of the image or of its variant, or empty if the image does not exist.
+     */
+    public Optional<String> resolveImageKey(String fileName, Integer width) {
+        // the ETag sidecars and the variants are kept in hidden directories
+        if (fileName.startsWith(".") || StringUtils.containsAny(fileName, '/', '\\')) {
+            return Optional.empty();
+        }
+        String key = toKey(fileName);
+        if (!exists(key)) {
+            return Optional.empty();
+        }
+        if (width == null) {
+            return Optional.of(key);
+        }
+        return Optional.of(imageVariantService.getVariant(key, width).orElse(key));
+    }
+
+    /**
+     * Get the ETag of a stored image, the SHA-256 of its content.
+     * <p>
+     * Stored images never change, so the hash is computed once, and kept in a sidecar blob unless the image is content-addressed.
+     *
+     * @param key the key of the image, as returned by {@link #resolveImageKey(String, Integer)}.
+     * @return the ETag, or empty if the image does not exist.
+     */
+    public Optional<String> getImageETag(String key) {
+        return Optional.ofNullable(eTags.computeIfAbsent(key, this::readOrComputeETag));
+    }
+
+    /**
+     * Get the date a stored image was last stored, which only changes when the same content is uploaded again.
+     * <p>
+     * It is read from the store once, then kept like the ETag.
+     *
+     * @param key the key of the image, as returned by {@link #resolveImageKey(String, Integer)}.
+     * @return the date in milliseconds since the epoch, or {@code -1} if it is unknown.
+     */
+    public long getImageLastModified(String key) {
+        Long lastModified = lastModifiedDates.computeIfAbsent(key, this::readLastModified);
+        return lastModified != null ? lastModified : -1;
+    }
+
+    /**
+     * Get a stored image, as a resource which is streamed when written to the response.
+     *
+     * @param key the key of the image, as returned by {@link #resolveImageKey(String, Integer)}.
+     * @return the image, or empty if it does not exist.
+     */
+    public Optional<Resource> getImage(String key) {
+        Optional<Resource> cachedImage = imageCacheService.get(key);
+        if (cachedImage.isPresent()) {
+            return cachedImage;
+        }
+        try {
+            return blobStore.get(key).map(resource -> loadImage(key, resource));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read image " + key, e);
+        }
+    }
+
+    /**
+     * Get a URL from which clients can download a stored image directly, without going through the application.
+     *
+     * @param key the key of the image, as returned by {@link #resolveImageKey(String, Integer)}.
+     * @return the URL, or empty if the image should be served by the application.
+     */
+    public Optional<URI> getImageUrl(String key) {
+        return blobStore.getDirectUrl(key);
+    }
+
+    /**
+     * Get how long clients may cache a URL returned by {@link #getImageUrl(String)}.
+     *
+     * @return the duration, zero if the URLs must not be cached.
+     */
+    public Duration getImageUrlMaxAge() {
+        return blobStore.getDirectUrlMaxAge();
+    }
+
+    /**
+     * Whether a stored image is a variant rather than an uploaded image.
+     *
+     * @param key the key of the image, as returned by {@link #resolveImageKey(String, Integer)}.
+     * @return true if the stored image is a variant.
+     */
+    public boolean isVariant(String key) {
+        return Arrays.asList(key.split("/")).contains(ImageVariantService.VARIANT_DIRECTORY);
     }
 
+    /**
+     * Whether a stored image is served in place of a variant which is being generated, and will replace it for this width.
+     *
+     * @param key the key of the image, as returned by {@link #resolveImageKey(String, Integer)}.
+     * @param width the width requested by the client, in pixels, or null for the image itself.
+     * @return true if a variant is pending.
+     */
+    public boolean isVariantPending(String key, Integer width) {
+        return width != null && !isVariant(key) && imageVariantService.isPending(key, width);
+    }
+
+    /**
+     * Delete an uploaded image, with its variants.
+     * <p>
+     * Content-addressed images may be shared by several blog posts or banners: they are not deleted here,
+     * but by {@link #deleteUnreferencedImages(Set, Instant)} once nothing links to them anymore.
+     *
+     * @param fileName the name of the image.
+     */
     public void deleteImage(String fileName) {
         log.debug("Request to delete image : {}", fileName);
-        UtilsService.deleteFile("upload", fileName);
+        if (CONTENT_ADDRESSED_NAME.matcher(fileName).matches()) {
+            log.debug("Image {} is content-addressed, it is deleted once unreferenced", fileName);
+            return;
+        }
+        resolveImageKey(fileName, null).ifPresent(this::deleteStoredImage);
+    }
+
+    /**
+     * Delete the content-addressed images which are not referenced anymore.
+     * <p>
+     * Images stored after the given instant are kept, as they may have been uploaded for a blog post or a banner not saved yet.
+     *
+     * @param referencedNames the names of the referenced images.
+     * @param modifiedBefore only the images last uploaded before this instant are deleted.
+     * @return the number of deleted images.
+     */
+    public int deleteUnreferencedImages(Set<String> referencedNames, Instant modifiedBefore) {
+        List<BlobInfo> blobs;
+        try {
+            blobs = blobStore.list();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list the stored images", e);
+        }
+        int deleted = 0;
+        for (BlobInfo blob : blobs) {
+            String name = BlobStore.getName(blob.getKey());
+            if (
+                CONTENT_ADDRESSED_NAME.matcher(name).matches() &&
+                blob.getKey().equals(toKey(name)) &&
+                !referencedNames.contains(name) &&
+                blob.getLastModified().isBefore(modifiedBefore)
+            ) {
+                deleteStoredImage(blob.getKey());
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private void deleteStoredImage(String key) {
+        List<String> keys = new ArrayList<>();
+        keys.add(key);
+        keys.addAll(imageVariantService.getVariantKeys(key));
+        for (String storedKey : keys) {
+            try {
+                blobStore.delete(storedKey);
+                blobStore.delete(getETagSidecarKey(storedKey));
+            } catch (IOException e) {
+                log.warn("Could not delete image {}: {}", storedKey, e.getMessage());
+            }
+            eTags.remove(storedKey);
+            storedKeys.remove(storedKey);
+            lastModifiedDates.remove(storedKey);
+            // after the blob is deleted, so a request which read it before cannot cache it again
+            imageCacheService.evict(storedKey);
+        }
+        imageVariantService.forgetVariants(key);
+    }
+
+    /**
+     * Read a small image into the cache, bigger images are streamed from the store.
+     */
+    private Resource loadImage(String key, Resource resource) {
+        Optional<ByteBuffer> reserved;
+        try {
+            reserved = imageCacheService.reserve(key, resource.contentLength());
+        } catch (IOException e) {
+            return resource;
+        }
+        if (reserved.isEmpty()) {
+            return resource;
+        }
+        ByteBuffer buffer = reserved.get();
+        try (ReadableByteChannel channel = resource.readableChannel()) {
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // read until the buffer is full
+            }
+        } catch (IOException e) {
+            imageCacheService.cancel(key, buffer);
+            log.warn("Could not cache image {}: {}", key, e.getMessage());
+            return resource;
+        }
+        buffer.flip();
+        return imageCacheService.put(key, buffer);
+    }
+
+    /**
+     * Check an upload from its metadata, before any of its content is read.
+     */
+    private void validateImage(MultipartFile image) {
+        if (image.isEmpty()) {
+            throw new BadRequestAlertException("The image is empty", ENTITY_NAME, "fileempty");
+        }
+        if (image.getSize() > maxUploadBytes) {
+            throw new BadRequestAlertException("The image is too large", ENTITY_NAME, "filetoolarge");
+        }
+        String extension = StringUtils.lowerCase(StringUtils.substringAfterLast(image.getOriginalFilename(), "."), Locale.ROOT);
+        if (!ALLOWED_EXTENSIONS.contains(extension)) {
+            throw new BadRequestAlertException("The image type is not allowed", ENTITY_NAME, "filetypeinvalid");
+        }
+    }
+
+    /**
+     * Recognize the type of an uploaded image from its first bytes, so a file cannot pass as an image by its name only.
+     */
+    private String detectExtension(Path file) throws IOException {
+        byte[] signature;
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            signature = inputStream.readNBytes(SIGNATURE_LENGTH);
+        }
+        if (startsWith(signature, 0, 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n')) {
+            return "png";
+        } else if (startsWith(signature, 0, 0xFF, 0xD8, 0xFF)) {
+            return "jpg";
+        } else if (startsWith(signature, 0, 'G', 'I', 'F', '8', '7', 'a') || startsWith(signature, 0, 'G', 'I', 'F', '8', '9', 'a')) {
+            return "gif";
+        } else if (startsWith(signature, 0, 'R', 'I', 'F', 'F') && startsWith(signature, 8, 'W', 'E', 'B', 'P')) {
+            return "webp";
+        }
+        throw new BadRequestAlertException("The image type is not allowed", ENTITY_NAME, "filetypeinvalid");
+    }
+
+    private boolean startsWith(byte[] bytes, int offset, int... expected) {
+        if (bytes.length < offset + expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((bytes[offset + i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stream an upload to a file, failing as soon as it exceeds the maximum size whatever size the client declared.
+     */
+    private void copy(InputStream inputStream, Path file) throws IOException {
+        byte[] buffer = new byte[8192];
+        long written = 0;
+        try (OutputStream outputStream = Files.newOutputStream(file)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                written += read;
+                if (written > maxUploadBytes) {
+                    throw new BadRequestAlertException("The image is too large", ENTITY_NAME, "filetoolarge");
+                }
+                outputStream.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private boolean exists(String key) {
+        if (eTags.containsKey(key) || storedKeys.contains(key)) {
+            return true;
+        }
+        try {
+            if (blobStore.exists(key)) {
+                storedKeys.add(key);
+                return true;
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read image " + key, e);
+        }
+    }
+
+    /**
+     * Get the key of an uploaded image from its name.
+     */
+    private String toKey(String fileName) {
+        Matcher matcher = CONTENT_ADDRESSED_NAME.matcher(fileName);
+        if (matcher.matches()) {
+            return matcher.group(1) + "/" + matcher.group(2) + "/" + fileName;
+        }
+        return fileName;
+    }
+
+    private String readOrComputeETag(String key) {
+        String name = BlobStore.getName(key);
+        Matcher matcher = CONTENT_ADDRESSED_NAME.matcher(name);
+        if (matcher.matches() && !isVariant(key)) {
+            return "\"" + matcher.group(1) + matcher.group(2) + matcher.group(3) + "\"";
+        }
+        String sidecarKey = getETagSidecarKey(key);
+        Path temporaryFile = null;
+        try {
+            Optional<Resource> sidecar = blobStore.get(sidecarKey);
+            if (sidecar.isPresent()) {
+                try (InputStream inputStream = sidecar.get().getInputStream()) {
+                    return new String(inputStream.readAllBytes(), StandardCharsets.US_ASCII);
+                }
+            }
+            Optional<Resource> image = blobStore.get(key);
+            if (image.isEmpty()) {
+                return null;
+            }
+            String eTag;
+            try (InputStream inputStream = image.get().getInputStream()) {
+                eTag = "\"" + UtilsService.sha256Hex(inputStream) + "\"";
+            }
+            temporaryFile = Files.createTempFile("image-etag-", ".tmp");
+            Files.writeString(temporaryFile, eTag, StandardCharsets.US_ASCII);
+            blobStore.put(sidecarKey, temporaryFile);
+            return eTag;
+        } catch (IOException e) {
+            log.warn("Could not compute the ETag of image {}: {}", key, e.getMessage());
+            return null;
+        } finally {
+            deleteQuietly(temporaryFile);
+        }
+    }
+
+    private Long readLastModified(String key) {
+        try {
+            Optional<Resource> image = blobStore.get(key);
+            return image.isPresent() ? image.get().lastModified() : null;
+        } catch (IOException e) {
+            log.debug("Could not read the last-modified date of image {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private String getETagSidecarKey(String key) {
+        return BlobStore.resolveSibling(key, ETAG_DIRECTORY + "/" + BlobStore.getName(key));
     }
 }
@@ -0,0 +1,365 @@
+package com.hcmus.chemistry.service;
+
+import com.hcmus.chemistry.config.ApplicationProperties;
+import com.hcmus.chemistry.service.storage.BlobStore;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service generating the fixed-width variants of the uploaded images, so small tiles do not download the originals.
+ * <p>
+ * Variants are stored next to their image, in {@code .variants/<width>/<fileName>}, and generated in the background,
+ * when an image is uploaded or the first time a missing variant is requested,
+ * by a pool of {@code application.image-variants.pool-size} workers.
+ * The original is decoded once for all its missing variants, and only if its dimensions, read from its header,
+ * are within {@code application.image-variants.max-pixels}.
+ * Only PNG and JPEG images are resized, the other ones are always served as uploaded.
+ */
+@Service
+public class ImageVariantService {
+
+    public static final String VARIANT_DIRECTORY = ".variants";
+
+    private static final Set<String> RESIZABLE_EXTENSIONS = Set.of("png", "jpg", "jpeg");
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private final BlobStore blobStore;
+
+    private final List<Integer> widths;
+
+    private final long maxPixels;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Images whose variants are being generated, so an image requested many times is queued once.
+     */
+    private final Set<String> pendingImages = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Variants known to be stored, so serving them does not check the store each time.
+     */
+    private final Set<String> storedVariants = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Variants which are not generated because the original is not wider, too large, or cannot be decoded.
+     */
+    private final Set<String> skippedVariants = ConcurrentHashMap.newKeySet();
+
+    public ImageVariantService(BlobStore blobStore, ApplicationProperties applicationProperties) {
+        this.blobStore = blobStore;
+        ApplicationProperties.ImageVariants properties = applicationProperties.getImageVariants();
+        this.widths = properties.getWidths().stream().filter(width -> width > 0).sorted().distinct().collect(Collectors.toList());
+        this.maxPixels = properties.getMaxPixels();
+        this.executor =
+            new ThreadPoolExecutor(
+                properties.getPoolSize(),
+                properties.getPoolSize(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new CustomizableThreadFactory("image-variant-")
+            );
+    }
+
+    /**
+     * Queue the generation of all the variants of an image.
+     *
+     * @param image the key of the original image.
+     */
+    public void generateVariants(String image) {
+        if (isResizable(image)) {
+            schedule(image);
+        }
+    }
+
+    /**
+     * Get the variant of an image best suited to the given width: the narrowest one at least as wide.
+     * <p>
+     * If that variant does not exist yet, its generation is queued and the original should be served meanwhile.
+     *
+     * @param image the key of the original image.
+     * @param width the width requested by the client, in pixels.
+     * @return the key of the variant, or empty if the original should be served.
+     */
+    public Optional<String> getVariant(String image, int width) {
+        Optional<Integer> variantWidth = widths.stream().filter(candidate -> candidate >= width).findFirst();
+        if (variantWidth.isEmpty() || !isResizable(image)) {
+            return Optional.empty();
+        }
+        String variant = getVariantKey(image, variantWidth.get());
+        if (skippedVariants.contains(variant)) {
+            return Optional.empty();
+        }
+        if (isStored(variant)) {
+            return Optional.of(variant);
+        }
+        schedule(image);
+        return Optional.empty();
+    }
+
+    /**
+     * Whether the original of an image is served in place of a variant which is about to exist,
+     * i.e. the variant suited to the width is being generated, or was generated since {@link #getVariant(String, int)} was called.
+     *
+     * @param image the key of the original image.
+     * @param width the width requested by the client, in pixels.
+     * @return true if the variant is pending, false if the original is the image to serve for this width.
+     */
+    public boolean isPending(String image, int width) {
+        Optional<Integer> variantWidth = widths.stream().filter(candidate -> candidate >= width).findFirst();
+        if (variantWidth.isEmpty() || !isResizable(image)) {
+            return false;
+        }
+        String variant = getVariantKey(image, variantWidth.get());
+        return !skippedVariants.contains(variant) && (pendingImages.contains(image) || storedVariants.contains(variant));
+    }
+
+    /**
+     * Get the keys of all the possible variants of an image, whether they exist or not.
+     *
+     * @param image the key of the original image.
+     * @return the keys of the variants.
+     */
+    public List<String> getVariantKeys(String image) {
+        return widths.stream().map(width -> getVariantKey(image, width)).collect(Collectors.toList());
+    }
+
+    /**
+     * Forget what is known of the variants of an image, after it is deleted.
+     *
+     * @param image the key of the original image.
+     */
+    public void forgetVariants(String image) {
+        getVariantKeys(image).forEach(variant -> {
+            storedVariants.remove(variant);
+            skippedVariants.remove(variant);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void schedule(String image) {
+        if (!pendingImages.add(image)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(image);
+                } finally {
+                    pendingImages.remove(image);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the variants are generated the next time one of them is requested
+            pendingImages.remove(image);
+            log.debug("Image variant queue is full, skipping {}", image);
+        }
+    }
+
+    private void generate(String image) {
+        List<Integer> missingWidths = new ArrayList<>();
+        byte[] content;
+        try {
+            for (Integer width : widths) {
+                String variant = getVariantKey(image, width);
+                if (!skippedVariants.contains(variant) && !isStored(variant)) {
+                    missingWidths.add(width);
+                }
+            }
+            if (missingWidths.isEmpty()) {
+                return;
+            }
+            Optional<Resource> resource = blobStore.get(image);
+            if (resource.isEmpty()) {
+                return;
+            }
+            try (InputStream inputStream = resource.get().getInputStream()) {
+                content = inputStream.readAllBytes();
+            }
+        } catch (IOException | RuntimeException e) {
+            // the store may be unavailable for a while, the variants are generated the next time they are requested
+            log.warn("Could not read image {}: {}", image, e.getMessage());
+            return;
+        }
+        BufferedImage original = decode(image, content);
+        for (Integer width : missingWidths) {
+            String variant = getVariantKey(image, width);
+            if (original == null || original.getWidth() <= width) {
+                skippedVariants.add(variant);
+            } else {
+                generate(original, image, variant, width);
+            }
+        }
+    }
+
+    private void generate(BufferedImage original, String image, String variant, int width) {
+        Path temporaryFile = null;
+        try {
+            String format = getFormat(image);
+            BufferedImage resized = resize(original, width, "jpeg".equals(format));
+            temporaryFile = Files.createTempFile("image-variant-", ".tmp");
+            write(resized, format, temporaryFile);
+            blobStore.put(variant, temporaryFile);
+            storedVariants.add(variant);
+            log.debug("Generated image variant {}", variant);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate image variant {}: {}", variant, e.getMessage());
+        } finally {
+            if (temporaryFile != null) {
+                try {
+                    Files.deleteIfExists(temporaryFile);
+                } catch (IOException e) {
+                    log.warn("Could not delete temporary file {}: {}", temporaryFile, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Decode an image, unless its dimensions exceed the maximum number of pixels: a small file may declare huge dimensions,
+     * and decoding allocates the raster they declare.
+     * <p>
+     * The content is already read from the store, so any failure here comes from the image itself and is not worth retrying.
+     *
+     * @return the image, or null if it cannot be decoded or is too large.
+     */
+    private BufferedImage decode(String image, byte[] content) {
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            if (imageInputStream == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    log.warn("Image {} has {} pixels, more than {}, it is not resized", image, pixels, maxPixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not decode image {}, it is not resized: {}", image, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Downscale an image by successive halvings, then to the exact width, which keeps bilinear interpolation sharp.
+     */
+    private BufferedImage resize(BufferedImage original, int width, boolean opaque) {
+        BufferedImage current = original;
+        do {
+            int nextWidth = Math.max(current.getWidth() / 2, width);
+            int nextHeight = Math.max(1, Math.round((float) original.getHeight() * nextWidth / original.getWidth()));
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (opaque) {
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, nextWidth, nextHeight);
+                }
+                graphics.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (current.getWidth() > width);
+        return current;
+    }
+
+    private void write(BufferedImage image, String format, Path file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        try (ImageOutputStream outputStream = ImageIO.createImageOutputStream(file.toFile())) {
+            writer.setOutput(outputStream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if ("jpeg".equals(format)) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private boolean isStored(String variant) {
+        if (storedVariants.contains(variant)) {
+            return true;
+        }
+        try {
+            if (blobStore.exists(variant)) {
+                storedVariants.add(variant);
+                return true;
+            }
+        } catch (IOException e) {
+            log.warn("Could not check image variant {}: {}", variant, e.getMessage());
+        }
+        return false;
+    }
+
+    private String getVariantKey(String image, int width) {
+        return BlobStore.resolveSibling(image, VARIANT_DIRECTORY + "/" + width + "/" + BlobStore.getName(image));
+    }
+
+    private boolean isResizable(String image) {
+        return RESIZABLE_EXTENSIONS.contains(getExtension(image));
+    }
+
+    private String getFormat(String image) {
+        return "png".equals(getExtension(image)) ? "png" : "jpeg";
+    }
+
+    private String getExtension(String image) {
+        return StringUtils.lowerCase(StringUtils.substringAfterLast(BlobStore.getName(image), "."), Locale.ROOT);
+    }
+}
@@ -73,8 +73,12 @@ public class BlogPostCriteria implements Serializable, Criteria {
 
     private IntegerFilter numberOfViews;
 
+    private BooleanFilter published;
+
     private LongFilter categoryId;
 
+    private Boolean includeSubCategories;
+
     private Boolean distinct;
 
     public BlogPostCriteria() {}
@@ -97,7 +101,9 @@ public class BlogPostCriteria implements Serializable, Criteria {
         this.modifiedBy = other.modifiedBy == null ? null : other.modifiedBy.copy();
         this.createdBy = other.createdBy == null ? null : other.createdBy.copy();
         this.numberOfViews = other.numberOfViews == null ? null : other.numberOfViews.copy();
+        this.published = other.published == null ? null : other.published.copy();
         this.categoryId = other.categoryId == null ? null : other.categoryId.copy();
+        this.includeSubCategories = other.includeSubCategories;
         this.distinct = other.distinct;
     }
 
@@ -361,6 +367,21 @@ public class BlogPostCriteria implements Serializable, Criteria {
         this.numberOfViews = numberOfViews;
     }
 
+    public BooleanFilter getPublished() {
+        return published;
+    }
+
+    public BooleanFilter published() {
+        if (published == null) {
+            published = new BooleanFilter();
+        }
+        return published;
+    }
+
+    public void setPublished(BooleanFilter published) {
+        this.published = published;
+    }
+
     public LongFilter getCategoryId() {
         return categoryId;
     }
@@ -376,6 +397,14 @@ public class BlogPostCriteria implements Serializable, Criteria {
         this.categoryId = categoryId;
     }
 
+    public Boolean getIncludeSubCategories() {
+        return includeSubCategories;
+    }
+
+    public void setIncludeSubCategories(Boolean includeSubCategories) {
+        this.includeSubCategories = includeSubCategories;
+    }
+
     public Boolean getDistinct() {
         return distinct;
     }
@@ -411,7 +440,9 @@ public class BlogPostCriteria implements Serializable, Criteria {
             Objects.equals(modifiedBy, that.modifiedBy) &&
             Objects.equals(createdBy, that.createdBy) &&
             Objects.equals(numberOfViews, that.numberOfViews) &&
+            Objects.equals(published, that.published) &&
             Objects.equals(categoryId, that.categoryId) &&
+            Objects.equals(includeSubCategories, that.includeSubCategories) &&
             Objects.equals(distinct, that.distinct)
         );
     }
@@ -436,7 +467,9 @@ public class BlogPostCriteria implements Serializable, Criteria {
             modifiedBy,
             createdBy,
             numberOfViews,
+            published,
             categoryId,
+            includeSubCategories,
             distinct
         );
     }
@@ -462,7 +495,9 @@ public class BlogPostCriteria implements Serializable, Criteria {
             (modifiedBy != null ? "modifiedBy=" + modifiedBy + ", " : "") +
             (createdBy != null ? "createdBy=" + createdBy + ", " : "") +
             (numberOfViews != null ? "numberOfViews=" + numberOfViews + ", " : "") +
+            (published != null ? "published=" + published + ", " : "") +
             (categoryId != null ? "categoryId=" + categoryId + ", " : "") +
+            (includeSubCategories != null ? "includeSubCategories=" + includeSubCategories + ", " : "") +
             (distinct != null ? "distinct=" + distinct + ", " : "") +
             "}";
     }
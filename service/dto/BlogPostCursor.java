@@ -0,0 +1,78 @@
+package com.hcmus.chemistry.service.dto;
+
+import com.hcmus.chemistry.domain.BlogPost;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of a blogPost in the listings ordered by {@code timeToPublish} then {@code id}, both descending.
+ * <p>
+ * It is sent to clients as an opaque string, which they send back to get the blogPosts after it.
+ */
+public final class BlogPostCursor {
+
+    private static final char SEPARATOR = '_';
+
+    private final ZonedDateTime timeToPublish;
+
+    private final Long id;
+
+    private BlogPostCursor(ZonedDateTime timeToPublish, Long id) {
+        this.timeToPublish = timeToPublish;
+        this.id = id;
+    }
+
+    /**
+     * @param blogPost the last blogPost of a page, with its {@code timeToPublish}.
+     * @return the cursor of the blogPosts after it.
+     */
+    public static BlogPostCursor of(BlogPost blogPost) {
+        return new BlogPostCursor(blogPost.getTimeToPublish(), blogPost.getId());
+    }
+
+    /**
+     * @param cursor a cursor built by {@link #encode()}.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static BlogPostCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            Instant timeToPublish = Instant.parse(decoded.substring(0, separator));
+            Long id = Long.valueOf(decoded.substring(separator + 1));
+            return new BlogPostCursor(ZonedDateTime.ofInstant(timeToPublish, ZoneOffset.UTC), id);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        String cursor = timeToPublish.toInstant().toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ZonedDateTime getTimeToPublish() {
+        return timeToPublish;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BlogPostCursor{" +
+            "timeToPublish='" + timeToPublish + "'" +
+            ", id=" + id +
+            "}";
+    }
+}
@@ -0,0 +1,29 @@
+package com.hcmus.chemistry.service.event;
+
+import com.hcmus.chemistry.domain.BlogPost;
+import java.util.List;
+
+/**
+ * Event published when the publication time of blog posts has come and they are flagged as published.
+ */
+public class BlogPostsPublishedEvent extends ContentChangedEvent {
+
+    private final List<Long> blogPostIds;
+
+    public BlogPostsPublishedEvent(List<Long> blogPostIds) {
+        super(BlogPost.class, null);
+        this.blogPostIds = blogPostIds;
+    }
+
+    public List<Long> getBlogPostIds() {
+        return blogPostIds;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BlogPostsPublishedEvent{" +
+            "blogPostIds=" + blogPostIds +
+            "}";
+    }
+}
@@ -0,0 +1,36 @@
+package com.hcmus.chemistry.service.event;
+
+/**
+ * Event published when a blog post, a category or a banner is created, updated or deleted,
+ * so the data derived from them can be rebuilt.
+ * <p>
+ * The id of the entity is {@code null} when several entities changed at once.
+ */
+public class ContentChangedEvent {
+
+    private final Class<?> entityType;
+
+    private final Long entityId;
+
+    public ContentChangedEvent(Class<?> entityType, Long entityId) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+    }
+
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ContentChangedEvent{" +
+            "entityType=" + entityType.getSimpleName() +
+            ", entityId=" + entityId +
+            "}";
+    }
+}
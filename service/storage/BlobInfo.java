@@ -0,0 +1,43 @@
+package com.hcmus.chemistry.service.storage;
+
+import java.time.Instant;
+
+/**
+ * Metadata of a blob listed by a {@link BlobStore}.
+ */
+public class BlobInfo {
+
+    private final String key;
+
+    private final long size;
+
+    private final Instant lastModified;
+
+    public BlobInfo(String key, long size, Instant lastModified) {
+        this.key = key;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BlobInfo{" +
+            "key='" + key + "'" +
+            ", size=" + size +
+            ", lastModified='" + lastModified + "'" +
+            "}";
+    }
+}
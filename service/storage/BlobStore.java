@@ -0,0 +1,99 @@
+package com.hcmus.chemistry.service.storage;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.core.io.Resource;
+
+/**
+ * Storage of the uploaded files, as immutable blobs identified by a key.
+ * <p>
+ * Keys are relative paths separated by {@code /}; a name starting with a dot denotes internal data,
+ * such as the ETag sidecars or the image variants. The backend is selected by {@code application.storage.type}.
+ */
+public interface BlobStore {
+    /**
+     * Store a blob, replacing any blob with the same key.
+     * <p>
+     * The content is streamed from the file, which may be moved by the store: callers should only delete it if it still exists.
+     *
+     * @param key the key of the blob.
+     * @param file the content of the blob.
+     * @throws IOException if the blob cannot be stored.
+     */
+    void put(String key, Path file) throws IOException;
+
+    /**
+     * Get a blob, as a resource which streams its content each time it is read.
+     *
+     * @param key the key of the blob.
+     * @return the blob, with a known content length, or empty if it does not exist.
+     * @throws IOException if the store cannot be reached.
+     */
+    Optional<Resource> get(String key) throws IOException;
+
+    /**
+     * Whether a blob exists.
+     *
+     * @param key the key of the blob.
+     * @return true if the blob exists.
+     * @throws IOException if the store cannot be reached.
+     */
+    boolean exists(String key) throws IOException;
+
+    /**
+     * Delete a blob, if it exists.
+     *
+     * @param key the key of the blob.
+     * @throws IOException if the blob cannot be deleted.
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * List all the blobs.
+     *
+     * @return the metadata of the blobs.
+     * @throws IOException if the blobs cannot be listed.
+     */
+    List<BlobInfo> list() throws IOException;
+
+    /**
+     * Get a URL from which clients can read a blob directly, without going through the application.
+     *
+     * @param key the key of the blob.
+     * @return the URL, or empty if the store is not reachable by clients.
+     */
+    Optional<URI> getDirectUrl(String key);
+
+    /**
+     * Get how long clients may cache a URL returned by {@link #getDirectUrl(String)}, shorter than the URL remains valid.
+     *
+     * @return the duration, zero if the URLs must not be cached.
+     */
+    Duration getDirectUrlMaxAge();
+
+    /**
+     * Resolve a path against the directory of a key, e.g. {@code ".etag/c.jpg"} against {@code "a/b/c.jpg"} is {@code "a/b/.etag/c.jpg"}.
+     *
+     * @param key the key.
+     * @param path the relative path.
+     * @return the resolved key.
+     */
+    static String resolveSibling(String key, String path) {
+        int separator = key.lastIndexOf('/');
+        return separator < 0 ? path : key.substring(0, separator + 1) + path;
+    }
+
+    /**
+     * Get the name of a key, its last segment.
+     *
+     * @param key the key.
+     * @return the name.
+     */
+    static String getName(String key) {
+        return key.substring(key.lastIndexOf('/') + 1);
+    }
+}
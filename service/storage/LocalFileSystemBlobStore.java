@@ -0,0 +1,125 @@
+package com.hcmus.chemistry.service.storage;
+
+import com.hcmus.chemistry.config.ApplicationProperties;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link BlobStore} keeping the blobs as files of {@code application.storage.local.directory}, the default backend.
+ * <p>
+ * Blobs are moved into place atomically, so a partially written blob is never read.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.storage", name = "type", havingValue = "local", matchIfMissing = true)
+public class LocalFileSystemBlobStore implements BlobStore {
+
+    /**
+     * Directory, inside the storage directory, where blobs are written before being moved to their key.
+     * It is on the same file system, so the move is atomic.
+     */
+    private static final String TEMPORARY_DIRECTORY = ".tmp";
+
+    private final Logger log = LoggerFactory.getLogger(LocalFileSystemBlobStore.class);
+
+    private final Path directory;
+
+    public LocalFileSystemBlobStore(ApplicationProperties applicationProperties) {
+        this.directory = Paths.get(applicationProperties.getStorage().getLocal().getDirectory()).toAbsolutePath().normalize();
+        log.debug("Storing blobs in {}", directory);
+    }
+
+    @Override
+    public void put(String key, Path file) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // the file is on another file system, copy it next to the target first
+            Path temporaryDirectory = Files.createDirectories(directory.resolve(TEMPORARY_DIRECTORY));
+            Path temporaryFile = Files.createTempFile(temporaryDirectory, "blob-", ".tmp");
+            try {
+                Files.copy(file, temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temporaryFile, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        }
+    }
+
+    @Override
+    public Optional<Resource> get(String key) {
+        Path path = resolve(key);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public List<BlobInfo> list() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        Path temporaryDirectory = directory.resolve(TEMPORARY_DIRECTORY);
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths
+                .filter(path -> !path.startsWith(temporaryDirectory))
+                .filter(Files::isRegularFile)
+                .map(this::toBlobInfo)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public Optional<URI> getDirectUrl(String key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Duration getDirectUrlMaxAge() {
+        return Duration.ZERO;
+    }
+
+    private Optional<BlobInfo> toBlobInfo(Path path) {
+        String key = directory.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+        try {
+            return Optional.of(new BlobInfo(key, Files.size(path), Files.getLastModifiedTime(path).toInstant()));
+        } catch (IOException e) {
+            // deleted while listing
+            return Optional.empty();
+        }
+    }
+
+    private Path resolve(String key) {
+        Path path = directory.resolve(key).normalize();
+        if (!path.startsWith(directory) || path.equals(directory)) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        return path;
+    }
+}
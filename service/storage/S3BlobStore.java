@@ -0,0 +1,433 @@
+package com.hcmus.chemistry.service.storage;
+
+import com.hcmus.chemistry.config.ApplicationProperties;
+import com.hcmus.chemistry.service.utils.UtilsService;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * {@link BlobStore} keeping the blobs in a bucket of an S3-compatible service, such as AWS S3 or MinIO.
+ * <p>
+ * Requests use path-style URLs and are signed with AWS Signature Version 4, so no SDK is needed.
+ * Blobs are streamed from and to the service, and clients can be redirected to presigned URLs.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.storage", name = "type", havingValue = "s3")
+public class S3BlobStore implements BlobStore {
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+
+    private static final String SERVICE = "s3";
+
+    private static final String BLOB_CACHE_CONTROL = "public, max-age=" + TimeUnit.DAYS.toSeconds(365) + ", immutable";
+
+    /**
+     * Margin kept between the end of the caching of a presigned URL and its expiry, for the clock skew with the service.
+     */
+    private static final long CLOCK_SKEW_SECONDS = 60;
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    private final Logger log = LoggerFactory.getLogger(S3BlobStore.class);
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+    private final String endpoint;
+
+    private final String host;
+
+    private final String region;
+
+    private final String bucket;
+
+    private final String accessKey;
+
+    private final String secretKey;
+
+    private final boolean redirect;
+
+    private final Duration presignedUrlTtl;
+
+    private final Duration requestTimeout;
+
+    public S3BlobStore(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Storage.S3 properties = applicationProperties.getStorage().getS3();
+        if (StringUtils.isAnyBlank(properties.getEndpoint(), properties.getBucket(), properties.getAccessKey(), properties.getSecretKey())) {
+            throw new IllegalStateException("The endpoint, bucket, access key and secret key of application.storage.s3 are required");
+        }
+        this.endpoint = StringUtils.removeEnd(properties.getEndpoint(), "/");
+        this.host = URI.create(endpoint).getRawAuthority();
+        this.region = properties.getRegion();
+        this.bucket = properties.getBucket();
+        this.accessKey = properties.getAccessKey();
+        this.secretKey = properties.getSecretKey();
+        this.redirect = properties.isRedirect();
+        this.presignedUrlTtl = properties.getPresignedUrlTtl();
+        this.requestTimeout = properties.getRequestTimeout();
+        log.debug("Storing blobs in bucket {} of {}", bucket, endpoint);
+    }
+
+    @Override
+    public void put(String key, Path file) throws IOException {
+        HttpRequest request = signedRequest("PUT", key, Map.of(), HttpRequest.BodyPublishers.ofFile(file))
+            .header(HttpHeaders.CONTENT_TYPE, MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM).toString())
+            .header(HttpHeaders.CACHE_CONTROL, BLOB_CACHE_CONTROL)
+            .build();
+        HttpResponse<Void> response = send(request, HttpResponse.BodyHandlers.discarding());
+        checkStatus(response, "PUT", key);
+    }
+
+    @Override
+    public Optional<Resource> get(String key) throws IOException {
+        HttpResponse<Void> response = head(key);
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        checkStatus(response, "HEAD", key);
+        long contentLength = response.headers().firstValueAsLong(HttpHeaders.CONTENT_LENGTH).orElse(-1);
+        long lastModified = response.headers().firstValue(HttpHeaders.LAST_MODIFIED).map(this::parseHttpDate).orElse(-1L);
+        return Optional.of(new S3Resource(key, contentLength, lastModified));
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        HttpResponse<Void> response = head(key);
+        if (response.statusCode() == 404) {
+            return false;
+        }
+        checkStatus(response, "HEAD", key);
+        return true;
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpRequest request = signedRequest("DELETE", key, Map.of(), HttpRequest.BodyPublishers.noBody()).build();
+        HttpResponse<Void> response = send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 404) {
+            checkStatus(response, "DELETE", key);
+        }
+    }
+
+    @Override
+    public List<BlobInfo> list() throws IOException {
+        List<BlobInfo> blobs = new ArrayList<>();
+        String continuationToken = null;
+        do {
+            Map<String, String> query = new TreeMap<>();
+            query.put("list-type", "2");
+            if (continuationToken != null) {
+                query.put("continuation-token", continuationToken);
+            }
+            HttpRequest request = signedRequest("GET", null, query, HttpRequest.BodyPublishers.noBody()).build();
+            HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                checkStatus(response, "LIST", bucket);
+                Document document = parseXml(body);
+                NodeList contents = document.getElementsByTagName("Contents");
+                for (int i = 0; i < contents.getLength(); i++) {
+                    Element content = (Element) contents.item(i);
+                    blobs.add(
+                        new BlobInfo(
+                            getText(content, "Key"),
+                            Long.parseLong(getText(content, "Size")),
+                            Instant.parse(getText(content, "LastModified"))
+                        )
+                    );
+                }
+                boolean truncated = "true".equals(getText(document.getDocumentElement(), "IsTruncated"));
+                continuationToken = truncated ? getText(document.getDocumentElement(), "NextContinuationToken") : null;
+            }
+        } while (continuationToken != null);
+        return blobs;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The signing time is rounded down to half the validity of the URL, so a blob keeps the same URL for a while
+     * and browsers can cache it, while the URL is always valid for at least half its validity.
+     */
+    @Override
+    public Optional<URI> getDirectUrl(String key) {
+        if (!redirect) {
+            return Optional.empty();
+        }
+        long window = getSigningWindow();
+        Instant now = Instant.ofEpochSecond(Instant.now().getEpochSecond() / window * window);
+        String canonicalUri = canonicalUri(key);
+        Map<String, String> query = new TreeMap<>();
+        query.put("X-Amz-Algorithm", ALGORITHM);
+        query.put("X-Amz-Credential", accessKey + "/" + scope(now));
+        query.put("X-Amz-Date", DATE_TIME_FORMATTER.format(now));
+        query.put("X-Amz-Expires", String.valueOf(getExpiry()));
+        query.put("X-Amz-SignedHeaders", "host");
+        String canonicalQuery = canonicalQuery(query);
+        String signature = sign(now, "GET", canonicalUri, canonicalQuery, "host:" + host + "\n", "host");
+        return Optional.of(URI.create(endpoint + canonicalUri + "?" + canonicalQuery + "&X-Amz-Signature=" + signature));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A URL is signed at most one signing window ago, so it remains valid at least its expiry minus that window.
+     */
+    @Override
+    public Duration getDirectUrlMaxAge() {
+        return Duration.ofSeconds(Math.max(0, getExpiry() - getSigningWindow() - CLOCK_SKEW_SECONDS));
+    }
+
+    private long getSigningWindow() {
+        return Math.max(1, getExpiry() / 2);
+    }
+
+    private long getExpiry() {
+        // the longest validity allowed by Signature Version 4
+        return Math.min(presignedUrlTtl.getSeconds(), TimeUnit.DAYS.toSeconds(7));
+    }
+
+    private HttpResponse<Void> head(String key) throws IOException {
+        HttpRequest request = signedRequest("HEAD", key, Map.of(), HttpRequest.BodyPublishers.noBody()).build();
+        return send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private HttpRequest.Builder signedRequest(String method, String key, Map<String, String> query, HttpRequest.BodyPublisher body) {
+        Instant now = Instant.now();
+        String dateTime = DATE_TIME_FORMATTER.format(now);
+        String canonicalUri = canonicalUri(key);
+        String canonicalQuery = canonicalQuery(query);
+        String canonicalHeaders = "host:" + host + "\n" + "x-amz-content-sha256:" + UNSIGNED_PAYLOAD + "\n" + "x-amz-date:" + dateTime + "\n";
+        String signedHeaders = "host;x-amz-content-sha256;x-amz-date";
+        String signature = sign(now, method, canonicalUri, canonicalQuery, canonicalHeaders, signedHeaders);
+        return HttpRequest
+            .newBuilder(URI.create(endpoint + canonicalUri + (canonicalQuery.isEmpty() ? "" : "?" + canonicalQuery)))
+            // the connect timeout of the client does not bound a service which accepts the connection then stalls
+            .timeout(requestTimeout)
+            .method(method, body)
+            .header("x-amz-content-sha256", UNSIGNED_PAYLOAD)
+            .header("x-amz-date", dateTime)
+            .header(
+                HttpHeaders.AUTHORIZATION,
+                ALGORITHM + " Credential=" + accessKey + "/" + scope(now) + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature
+            );
+    }
+
+    private String sign(
+        Instant now,
+        String method,
+        String canonicalUri,
+        String canonicalQuery,
+        String canonicalHeaders,
+        String signedHeaders
+    ) {
+        String canonicalRequest = String.join(
+            "\n",
+            method,
+            canonicalUri,
+            canonicalQuery,
+            canonicalHeaders,
+            signedHeaders,
+            UNSIGNED_PAYLOAD
+        );
+        String stringToSign = String.join(
+            "\n",
+            ALGORITHM,
+            DATE_TIME_FORMATTER.format(now),
+            scope(now),
+            UtilsService.toHex(UtilsService.sha256().digest(canonicalRequest.getBytes(StandardCharsets.UTF_8)))
+        );
+        byte[] signingKey = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), DATE_FORMATTER.format(now));
+        signingKey = hmac(signingKey, region);
+        signingKey = hmac(signingKey, SERVICE);
+        signingKey = hmac(signingKey, "aws4_request");
+        return UtilsService.toHex(hmac(signingKey, stringToSign));
+    }
+
+    private String scope(Instant now) {
+        return DATE_FORMATTER.format(now) + "/" + region + "/" + SERVICE + "/aws4_request";
+    }
+
+    private String canonicalUri(String key) {
+        return "/" + uriEncode(bucket, true) + (key != null ? "/" + uriEncode(key, false) : "");
+    }
+
+    private String canonicalQuery(Map<String, String> query) {
+        return new TreeMap<>(query)
+            .entrySet()
+            .stream()
+            .map(entry -> uriEncode(entry.getKey(), true) + "=" + uriEncode(entry.getValue(), true))
+            .collect(Collectors.joining("&"));
+    }
+
+    /**
+     * Percent-encode a value as required by Signature Version 4: every byte but the unreserved characters.
+     */
+    private static String uriEncode(String value, boolean encodeSlash) {
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || "-_.~".indexOf(c) >= 0) {
+                encoded.append(c);
+            } else if (c == '/' && !encodeSlash) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(String.format("%02X", b & 0xFF));
+            }
+        }
+        return encoded.toString();
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            // every Java platform is required to support HmacSHA256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) throws IOException {
+        try {
+            return httpClient.send(request, bodyHandler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling " + request.uri().getPath());
+        }
+    }
+
+    private void checkStatus(HttpResponse<?> response, String operation, String key) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("S3 " + operation + " of " + key + " failed with status " + response.statusCode());
+        }
+    }
+
+    private Document parseXml(InputStream inputStream) throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder().parse(inputStream);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Could not parse the S3 response", e);
+        }
+    }
+
+    private long parseHttpDate(String value) {
+        try {
+            return DateTimeFormatter.RFC_1123_DATE_TIME.parse(value, Instant::from).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            log.debug("Ignoring invalid date {}", value);
+            return -1;
+        }
+    }
+
+    private String getText(Element element, String tagName) {
+        NodeList nodes = element.getElementsByTagName(tagName);
+        return nodes.getLength() > 0 ? nodes.item(0).getTextContent() : null;
+    }
+
+    /**
+     * Resource reading a blob, each stream is a new {@code GET} request.
+     */
+    private final class S3Resource extends AbstractResource {
+
+        private final String key;
+
+        private final long contentLength;
+
+        private final long lastModified;
+
+        private S3Resource(String key, long contentLength, long lastModified) {
+            this.key = key;
+            this.contentLength = contentLength;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public String getFilename() {
+            return BlobStore.getName(key);
+        }
+
+        @Override
+        public String getDescription() {
+            return "S3 blob [" + bucket + "/" + key + "]";
+        }
+
+        @Override
+        public long contentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            if (lastModified < 0) {
+                throw new IOException(getDescription() + " has no last-modified date");
+            }
+            return lastModified;
+        }
+
+        @Override
+        public boolean exists() {
+            // the blob was found when the resource was created
+            return true;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            HttpRequest request = signedRequest("GET", key, Map.of(), HttpRequest.BodyPublishers.noBody()).build();
+            HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() == 404) {
+                response.body().close();
+                throw new FileNotFoundException(getDescription() + " does not exist");
+            }
+            if (response.statusCode() / 100 != 2) {
+                response.body().close();
+                checkStatus(response, "GET", key);
+            }
+            return response.body();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Storage backends of the uploaded files.
+ */
+package com.hcmus.chemistry.service.storage;
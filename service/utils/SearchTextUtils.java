@@ -0,0 +1,81 @@
+package com.hcmus.chemistry.service.utils;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ * Utility class to turn blog post HTML into readable plain text, and into the accent-folded, lower-cased text used for searching.
+ */
+public final class SearchTextUtils {
+
+    private static final Pattern HTML_TAG = Pattern.compile("<[^>]*>");
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+
+    private SearchTextUtils() {}
+
+    /**
+     * Remove the HTML tags and decode the HTML entities of a text.
+     *
+     * @param html the HTML text, may be null.
+     * @return the plain text, or an empty string.
+     */
+    public static String stripHtml(String html) {
+        if (html == null) {
+            return "";
+        }
+        return HtmlUtils.htmlUnescape(HTML_TAG.matcher(html).replaceAll(" "));
+    }
+
+    /**
+     * Remove the accents of a text and lower-case it.
+     * Unlike {@link StringUtils#stripAccents(String)}, the Vietnamese "đ" is folded as well.
+     *
+     * @param text the text, may be null.
+     * @return the folded text, or an empty string.
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").replace('đ', 'd').replace('Đ', 'D').toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Turn a HTML text into readable plain text with collapsed whitespaces, keeping its accents and case.
+     *
+     * @param html the HTML text, may be null.
+     * @return the plain text, or an empty string.
+     */
+    public static String toPlainText(String html) {
+        return WHITESPACES.matcher(stripHtml(html)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Turn a HTML text into its searchable form: plain, accent-folded, lower-cased text with collapsed whitespaces.
+     *
+     * @param html the HTML text, may be null.
+     * @return the searchable text, or an empty string.
+     */
+    public static String normalize(String html) {
+        return fold(toPlainText(html));
+    }
+
+    /**
+     * Join already normalized texts into a searchable document.
+     *
+     * @param texts the normalized texts, may contain nulls.
+     * @return the searchable document, or an empty string.
+     */
+    public static String join(String... texts) {
+        return Arrays.stream(texts).filter(StringUtils::isNotEmpty).collect(Collectors.joining(" "));
+    }
+}
@@ -1,40 +1,33 @@
 package com.hcmus.chemistry.service.utils;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 public class UtilsService {
 
-    public static String saveFile(String filePath, MultipartFile file) {
-        String fileName =
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd-MM-yyyy_HH-mm-ss")) +
-            "_" +
-            file.getOriginalFilename().replaceAll("[ ;:,/\\\\]", "_");
-
-        File directory = new File(filePath);
-        if (!directory.exists()) {
-            directory.mkdirs();
+    public static String sha256Hex(InputStream inputStream) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
         }
+        return toHex(digest.digest());
+    }
+
+    public static MessageDigest sha256() {
         try {
-            File convertFile = new File(filePath + "/" + fileName);
-            convertFile.createNewFile();
-            FileOutputStream fout = new FileOutputStream(convertFile);
-            fout.write(file.getBytes());
-            fout.close();
-            return fileName;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
         }
     }
 
-    public static void deleteFile(String filePath, String fileName) {
-        File file = new File(filePath + "/" + fileName);
-        if (file.exists()) {
-            file.delete();
-        }
+    public static String toHex(byte[] bytes) {
+        return String.format("%0" + (bytes.length * 2) + "x", new BigInteger(1, bytes));
     }
 }
@@ -164,12 +164,13 @@ public class BannerResource {
      * {@code GET  /banners/count} : count all the banners.
      *
      * @param criteria the criteria which the requested entities should match.
+     * @param approximate whether an estimate is accepted when nothing is filtered.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
      */
     @GetMapping("/banners/count")
-    public ResponseEntity<Long> countBanners(BannerCriteria criteria) {
+    public ResponseEntity<Long> countBanners(BannerCriteria criteria, @RequestParam(defaultValue = "false") boolean approximate) {
         log.debug("REST request to count Banners by criteria: {}", criteria);
-        return ResponseEntity.ok().body(bannerQueryService.countByCriteria(criteria));
+        return ResponseEntity.ok().body(bannerQueryService.countByCriteria(criteria, approximate));
     }
 
     /**
@@ -3,27 +3,35 @@ package com.hcmus.chemistry.web.rest;
 import com.hcmus.chemistry.config.ChemistryConstant;
 import com.hcmus.chemistry.domain.BlogPost;
 import com.hcmus.chemistry.domain.dto.BlogPostDTO;
+import com.hcmus.chemistry.domain.dto.BlogPostSearchResultDTO;
 import com.hcmus.chemistry.domain.enumeration.CurrentStatus;
 import com.hcmus.chemistry.repository.BlogPostRepository;
 import com.hcmus.chemistry.service.BlogPostQueryService;
+import com.hcmus.chemistry.service.BlogPostSearchIndexer;
 import com.hcmus.chemistry.service.BlogPostService;
+import com.hcmus.chemistry.service.BlogPostViewService;
 import com.hcmus.chemistry.service.criteria.BlogPostCriteria;
+import com.hcmus.chemistry.service.dto.BlogPostCursor;
 import com.hcmus.chemistry.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
@@ -55,6 +63,16 @@ public class BlogPostResource {
 
     private static final String ENTITY_NAME = "blogPost";
 
+    private static final int MAX_VIEWS_PER_REQUEST = 100;
+
+    private static final int MAX_CATEGORIES_PER_REQUEST = 50;
+
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    private static final int MAX_LATEST_PER_CATEGORY = 50;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -64,14 +82,22 @@ public class BlogPostResource {
 
     private final BlogPostQueryService blogPostQueryService;
 
+    private final BlogPostViewService blogPostViewService;
+
+    private final BlogPostSearchIndexer blogPostSearchIndexer;
+
     public BlogPostResource(
         BlogPostService blogPostService,
         BlogPostRepository blogPostRepository,
-        BlogPostQueryService blogPostQueryService
+        BlogPostQueryService blogPostQueryService,
+        BlogPostViewService blogPostViewService,
+        BlogPostSearchIndexer blogPostSearchIndexer
     ) {
         this.blogPostService = blogPostService;
         this.blogPostRepository = blogPostRepository;
         this.blogPostQueryService = blogPostQueryService;
+        this.blogPostViewService = blogPostViewService;
+        this.blogPostSearchIndexer = blogPostSearchIndexer;
     }
 
     /**
@@ -88,6 +114,7 @@ public class BlogPostResource {
         if (blogPost.getId() != null) {
             throw new BadRequestAlertException("A new blogPost cannot already have an ID", ENTITY_NAME, "idexists");
         }
+        checkSlugAvailable(blogPost);
         BlogPost result = blogPostService.save(blogPost);
         return ResponseEntity
             .created(new URI("/api/blog-posts/" + result.getId()))
@@ -122,6 +149,7 @@ public class BlogPostResource {
         if (!blogPostRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        checkSlugAvailable(blogPost);
 
         BlogPost result = blogPostService.update(blogPost);
         return ResponseEntity
@@ -130,6 +158,14 @@ public class BlogPostResource {
             .body(result);
     }
 
+    /**
+     * {@code PUT  /blog-posts/:id/views} : Record a view of the "id" blogPost.
+     *
+     * @param id the id of the viewed blogPost.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the blogPost, with its buffered views counted.
+     * @deprecated returns the whole blogPost for each view, use {@code POST /blog-posts/:id/views} instead.
+     */
+    @Deprecated
     @PutMapping("/blog-posts/{id}/views")
     public ResponseEntity<BlogPost> updateBlogPostViews(@PathVariable(value = "id", required = true) final Long id) {
         log.debug("REST request to update BlogPost views : {}", id);
@@ -137,6 +173,36 @@ public class BlogPostResource {
         return ResponseEntity.ok().body(result);
     }
 
+    /**
+     * {@code POST  /blog-posts/:id/views} : Record a view of the "id" blogPost.
+     *
+     * @param id the id of the viewed blogPost.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)}.
+     */
+    @PostMapping("/blog-posts/{id}/views")
+    public ResponseEntity<Void> recordBlogPostView(@PathVariable Long id) {
+        log.debug("REST request to record BlogPost view : {}", id);
+        blogPostViewService.recordView(id);
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * {@code POST  /blog-posts/views} : Record a view of each given blogPost.
+     *
+     * @param ids the ids of the viewed blogPosts.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)},
+     * or with status {@code 400 (Bad Request)} if too many ids are sent at once.
+     */
+    @PostMapping("/blog-posts/views")
+    public ResponseEntity<Void> recordBlogPostViews(@NotNull @RequestBody List<Long> ids) {
+        log.debug("REST request to record BlogPost views : {}", ids);
+        if (ids.size() > MAX_VIEWS_PER_REQUEST) {
+            throw new BadRequestAlertException("Too many views in one request", ENTITY_NAME, "viewstoomany");
+        }
+        blogPostViewService.recordViews(ids);
+        return ResponseEntity.accepted().build();
+    }
+
     /**
      * {@code PATCH  /blog-posts/:id} : Partial updates given fields of an existing blogPost, field will ignore if it is null
      *
@@ -165,6 +231,7 @@ public class BlogPostResource {
         if (!blogPostRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        checkSlugAvailable(blogPost);
 
         Optional<BlogPost> result = blogPostService.partialUpdate(blogPost);
 
@@ -176,38 +243,100 @@ public class BlogPostResource {
 
     /**
      * {@code GET  /blog-posts} : get all the blogPosts.
+     * <p>
+     * With a {@code cursor} parameter, empty for the first page, the blogPosts are listed by {@code timeToPublish} then
+     * {@code id}, both descending, and the page sort and number are ignored. The cursor of the next page is returned in the
+     * {@code X-Next-Cursor} header, absent on the last page, and the total is only counted if {@code withCount} is set.
+     * With {@code approximate} set and no filter, the total of a large table is an estimate.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of blogPosts in body.
+     * @param cursor the cursor returned with the previous page, optional.
+     * @param withCount whether to count the matching blogPosts in cursor mode.
+     * @param approximate whether an estimated total is accepted when nothing is filtered.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of blogPosts in body,
+     * or with status {@code 400 (Bad Request)} if the cursor is invalid.
      */
     @GetMapping("/blog-posts")
     public ResponseEntity<List<BlogPost>> getAllBlogPosts(
         BlogPostCriteria criteria,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "false") boolean withCount,
+        @RequestParam(defaultValue = "false") boolean approximate
     ) {
         log.debug("REST request to get BlogPosts by criteria: {}", criteria);
-        Page<BlogPost> page = blogPostQueryService.findByCriteria(criteria, pageable);
+        if (cursor != null) {
+            return getBlogPostsAfter(criteria, cursor, pageable.getPageSize(), withCount);
+        }
+        Page<BlogPost> page = blogPostQueryService.findByCriteria(criteria, pageable, approximate);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    private ResponseEntity<List<BlogPost>> getBlogPostsAfter(BlogPostCriteria criteria, String cursor, int size, boolean withCount) {
+        BlogPostCursor after;
+        try {
+            after = cursor.isEmpty() ? null : BlogPostCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        Slice<BlogPost> slice = blogPostQueryService.findByCriteria(criteria, after, size);
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext()) {
+            List<BlogPost> blogPosts = slice.getContent();
+            headers.add(NEXT_CURSOR_HEADER, BlogPostCursor.of(blogPosts.get(blogPosts.size() - 1)).encode());
+        }
+        if (withCount) {
+            // the blogPosts without timeToPublish are not listed in cursor mode, so they are not counted either
+            BlogPostCriteria listed = criteria.copy();
+            listed.timeToPublish().setSpecified(true);
+            headers.add(TOTAL_COUNT_HEADER, Long.toString(blogPostQueryService.countByCriteria(listed)));
+        }
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
     @GetMapping("/blog-posts/blogpost-carousel")
     public ResponseEntity<List<BlogPostDTO>> getAllBlogPostsCarousel() {
         log.debug("REST request to get all BlogPosts with conditions");
         return ResponseEntity.ok().body(blogPostService.findBlogPostsCarousel());
     }
 
+    /**
+     * {@code GET  /blog-posts/latest-by-categories} : get the latest published blogPosts of each given category, in one request.
+     *
+     * @param categoryIds the ids of the categories.
+     * @param size the maximum number of blogPosts of each category.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the blogPosts of each category, by category id, in body,
+     * or with status {@code 400 (Bad Request)} if no or too many categories are requested, or the size is out of range.
+     */
+    @GetMapping("/blog-posts/latest-by-categories")
+    public ResponseEntity<Map<Long, List<BlogPostDTO>>> getLatestBlogPostsByCategories(
+        @RequestParam List<Long> categoryIds,
+        @RequestParam(defaultValue = "6") int size
+    ) {
+        log.debug("REST request to get the latest BlogPosts of the Categories : {}", categoryIds);
+        SortedSet<Long> uniqueCategoryIds = categoryIds.stream().filter(Objects::nonNull).collect(Collectors.toCollection(TreeSet::new));
+        if (uniqueCategoryIds.isEmpty() || uniqueCategoryIds.size() > MAX_CATEGORIES_PER_REQUEST) {
+            throw new BadRequestAlertException("Invalid number of categories", ENTITY_NAME, "categoriesinvalid");
+        }
+        if (size < 1 || size > MAX_LATEST_PER_CATEGORY) {
+            throw new BadRequestAlertException("Invalid number of blogPosts per category", ENTITY_NAME, "sizeinvalid");
+        }
+        return ResponseEntity.ok().body(blogPostService.findLatestByCategories(uniqueCategoryIds, size));
+    }
+
     /**
      * {@code GET  /blog-posts/count} : count all the blogPosts.
      *
      * @param criteria the criteria which the requested entities should match.
+     * @param approximate whether an estimate is accepted when nothing is filtered.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
      */
     @GetMapping("/blog-posts/count")
-    public ResponseEntity<Long> countBlogPosts(BlogPostCriteria criteria) {
+    public ResponseEntity<Long> countBlogPosts(BlogPostCriteria criteria, @RequestParam(defaultValue = "false") boolean approximate) {
         log.debug("REST request to count BlogPosts by criteria: {}", criteria);
-        return ResponseEntity.ok().body(blogPostQueryService.countByCriteria(criteria));
+        return ResponseEntity.ok().body(blogPostQueryService.countByCriteria(criteria, approximate));
     }
 
     /**
@@ -223,6 +352,19 @@ public class BlogPostResource {
         return ResponseUtil.wrapOrNotFound(blogPost);
     }
 
+    /**
+     * {@code GET  /blog-posts/slug/:slug} : get the blogPost with the "slug" slug.
+     *
+     * @param slug the slug of the blogPost to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the blogPost, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/blog-posts/slug/{slug}")
+    public ResponseEntity<BlogPost> getBlogPostBySlug(@PathVariable String slug) {
+        log.debug("REST request to get BlogPost by slug : {}", slug);
+        Optional<BlogPost> blogPost = blogPostService.findOneBySlug(slug);
+        return ResponseUtil.wrapOrNotFound(blogPost);
+    }
+
     /**
      * {@code DELETE  /blog-posts/:id} : delete the "id" blogPost.
      *
@@ -240,16 +382,46 @@ public class BlogPostResource {
             .build();
     }
 
+    /**
+     * {@code POST  /blog-posts/plain-text/backfill} : recompute the plain-text columns and search documents of all the blogPosts.
+     *
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)}, the blogPosts are indexed in the background.
+     */
+    @PostMapping("/blog-posts/plain-text/backfill")
+    @PreAuthorize(ChemistryConstant.ALLOW_MODIFIED)
+    public ResponseEntity<Void> backfillBlogPostPlainText() {
+        log.debug("REST request to backfill the plain text of all BlogPosts");
+        blogPostSearchIndexer.indexAll();
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * {@code GET  /blog-posts/search} : search the blogPosts by their title, description and content.
+     *
+     * @param queryString the words to search, accents and case are ignored.
+     * @param language the language of the texts to search, {@code en} or {@code vi}.
+     * @param pageable the pagination information, the best matches come first.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of search results in body.
+     */
     @GetMapping("/blog-posts/search")
-    public ResponseEntity<List<BlogPost>> searchBlogPostByBlogPostContentI18n(
+    public ResponseEntity<List<BlogPostSearchResultDTO>> searchBlogPostByBlogPostContentI18n(
         @RequestParam String queryString,
-        @RequestParam String language
+        @RequestParam String language,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
     ) {
         log.debug("Request to search BlogPost by Query String : {}", queryString);
-        List<BlogPost> blogPosts = blogPostRepository.searchBlogPostByBlogPostContentI18n(
-            StringUtils.stripAccents(queryString.toLowerCase()),
-            language
-        );
-        return ResponseEntity.ok().body(blogPosts);
+        Page<BlogPostSearchResultDTO> page = blogPostService.search(queryString, language, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    private void checkSlugAvailable(BlogPost blogPost) {
+        if (blogPost.getBlogPostSlug() == null) {
+            return;
+        }
+        Long id = blogPostRepository.findIdByBlogPostSlug(blogPost.getBlogPostSlug());
+        if (id != null && !id.equals(blogPost.getId())) {
+            throw new BadRequestAlertException("Slug already used", ENTITY_NAME, "slugexists");
+        }
     }
 }
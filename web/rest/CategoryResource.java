@@ -2,10 +2,12 @@ package com.hcmus.chemistry.web.rest;
 
 import com.hcmus.chemistry.config.ChemistryConstant;
 import com.hcmus.chemistry.domain.Category;
+import com.hcmus.chemistry.domain.dto.CategoryTreeNodeDTO;
 import com.hcmus.chemistry.domain.enumeration.CurrentStatus;
 import com.hcmus.chemistry.repository.CategoryRepository;
 import com.hcmus.chemistry.service.CategoryQueryService;
 import com.hcmus.chemistry.service.CategoryService;
+import com.hcmus.chemistry.service.CategoryTreeService;
 import com.hcmus.chemistry.service.criteria.CategoryCriteria;
 import com.hcmus.chemistry.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
@@ -50,14 +52,18 @@ public class CategoryResource {
 
     private final CategoryQueryService categoryQueryService;
 
+    private final CategoryTreeService categoryTreeService;
+
     public CategoryResource(
         CategoryService categoryService,
         CategoryRepository categoryRepository,
-        CategoryQueryService categoryQueryService
+        CategoryQueryService categoryQueryService,
+        CategoryTreeService categoryTreeService
     ) {
         this.categoryService = categoryService;
         this.categoryRepository = categoryRepository;
         this.categoryQueryService = categoryQueryService;
+        this.categoryTreeService = categoryTreeService;
     }
 
     /**
@@ -184,16 +190,28 @@ public class CategoryResource {
         return ResponseEntity.ok().body(categories);
     }
 
+    /**
+     * {@code GET  /categories/tree} : get all the categories, nested under their parent category.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the root categories, with their subcategories, in body.
+     */
+    @GetMapping("/categories/tree")
+    public ResponseEntity<List<CategoryTreeNodeDTO>> getCategoryTree() {
+        log.debug("REST request to get the Category tree");
+        return ResponseEntity.ok().body(categoryTreeService.getTree().getRoots());
+    }
+
     /**
      * {@code GET  /categories/count} : count all the categories.
      *
      * @param criteria the criteria which the requested entities should match.
+     * @param approximate whether an estimate is accepted when nothing is filtered.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
      */
     @GetMapping("/categories/count")
-    public ResponseEntity<Long> countCategories(CategoryCriteria criteria) {
+    public ResponseEntity<Long> countCategories(CategoryCriteria criteria, @RequestParam(defaultValue = "false") boolean approximate) {
         log.debug("REST request to count Categories by criteria: {}", criteria);
-        return ResponseEntity.ok().body(categoryQueryService.countByCriteria(criteria));
+        return ResponseEntity.ok().body(categoryQueryService.countByCriteria(criteria, approximate));
     }
 
     /**
@@ -0,0 +1,51 @@
+package com.hcmus.chemistry.web.rest;
+
+import com.hcmus.chemistry.service.HomepageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * REST controller serving the homepage.
+ */
+@RestController
+@RequestMapping("/api")
+public class HomepageResource {
+
+    private final Logger log = LoggerFactory.getLogger(HomepageResource.class);
+
+    private final HomepageService homepageService;
+
+    public HomepageResource(HomepageService homepageService) {
+        this.homepageService = homepageService;
+    }
+
+    /**
+     * {@code GET  /homepage} : get the banners, the carousel and the latest blog posts of the homepage categories.
+     * <p>
+     * The payload is precomputed; conditional requests are answered with {@code 304 (Not Modified)} while it is unchanged.
+     *
+     * @param webRequest the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the homepage in body.
+     */
+    @GetMapping("/homepage")
+    public ResponseEntity<byte[]> getHomepage(WebRequest webRequest) {
+        log.debug("REST request to get the homepage");
+        HomepageService.Homepage homepage = homepageService.getHomepage();
+        if (webRequest.checkNotModified(homepage.getETag())) {
+            return null;
+        }
+        return ResponseEntity
+            .ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .cacheControl(CacheControl.noCache().cachePublic())
+            .eTag(homepage.getETag())
+            .body(homepage.getBody());
+    }
+}
@@ -2,17 +2,20 @@ package com.hcmus.chemistry.web.rest;
 
 import com.hcmus.chemistry.service.ImageService;
 import com.hcmus.chemistry.service.dto.ImageResponse;
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,8 +24,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
-import tech.jhipster.config.JHipsterProperties;
 
 @RestController
 @RequestMapping("/api")
@@ -30,31 +33,92 @@ public class ImageResource {
 
     private final Logger log = LoggerFactory.getLogger(ImageResource.class);
 
-    private final JHipsterProperties jHipsterProperties;
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=" + TimeUnit.DAYS.toSeconds(365) + ", immutable";
+
+    private static final String PENDING_VARIANT_CACHE_CONTROL = "public, max-age=" + TimeUnit.MINUTES.toSeconds(1);
+
+    private static final MediaType SVG_MEDIA_TYPE = new MediaType("image", "svg+xml");
+
+    private static final String SVG_CONTENT_SECURITY_POLICY_HEADER = "Content-Security-Policy";
 
     private final ImageService imageService;
 
-    public ImageResource(JHipsterProperties jHipsterProperties, ImageService imageService) {
-        this.jHipsterProperties = jHipsterProperties;
+    public ImageResource(ImageService imageService) {
         this.imageService = imageService;
     }
 
+    /**
+     * {@code GET  /public-images/:fileName} : get an uploaded image.
+     * <p>
+     * The file is streamed and {@code Range} requests are answered with {@code 206 (Partial Content)}.
+     * Conditional requests are answered with {@code 304 (Not Modified)} from the ETag computed at upload, or from the date the image
+     * was stored for clients sending {@code If-Modified-Since} only, without reading the file.
+     * With a width, the narrowest pre-rendered variant at least that wide is served; while it is generated, the original is served
+     * with a short cache lifetime.
+     * When the storage backend is reachable by clients, they are redirected to it so the image does not go through the application;
+     * the redirection is cached for less time than the URL it points to remains valid.
+     *
+     * @param fileName the name of the image.
+     * @param width the width in pixels at which the image is displayed, optional.
+     * @param webRequest the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the image in body,
+     * or with status {@code 302 (Found)} and the URL of the image, or with status {@code 404 (Not Found)}.
+     */
     @GetMapping(value = "/public-images/{fileName:.+}")
-    public ResponseEntity<byte[]> getPublicImage(@PathVariable String fileName) throws IOException {
-        File file = new File("upload" + File.separator + fileName);
-        Path path = Paths.get(file.getAbsolutePath());
-        if (file.exists()) {
-            long cacheTimeToLive = TimeUnit.DAYS.toMillis(jHipsterProperties.getHttp().getCache().getTimeToLiveInDays());
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(getImageMediaType(Files.probeContentType(path)));
-            headers.setCacheControl("max-age=" + cacheTimeToLive + ", public");
-            headers.setPragma("cache");
-            headers.setExpires(cacheTimeToLive + System.currentTimeMillis());
-            return ResponseEntity.ok().headers(headers).body(Files.readAllBytes(path));
+    public ResponseEntity<Resource> getPublicImage(
+        @PathVariable String fileName,
+        @RequestParam(value = "w", required = false) Integer width,
+        WebRequest webRequest
+    ) {
+        Optional<String> key = imageService.resolveImageKey(fileName, width);
+        if (key.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<URI> imageUrl = imageService.getImageUrl(key.get());
+        if (imageUrl.isPresent()) {
+            // the redirection is cached for less time than the URL remains valid
+            Duration maxAge = imageService.getImageUrlMaxAge();
+            return ResponseEntity
+                .status(HttpStatus.FOUND)
+                .location(imageUrl.get())
+                .cacheControl(maxAge.isZero() ? CacheControl.noStore() : CacheControl.maxAge(maxAge).cachePublic())
+                .build();
+        }
+        Optional<String> eTag = imageService.getImageETag(key.get());
+        long lastModified = imageService.getImageLastModified(key.get());
+        if (webRequest.checkNotModified(eTag.orElse(null), lastModified)) {
+            return null;
+        }
+        Optional<Resource> image = imageService.getImage(key.get());
+        if (image.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // uploaded images are named after their content, which never changes, but a variant being generated replaces the original
+        boolean variantPending = imageService.isVariantPending(key.get(), width);
+        MediaType mediaType = getImageMediaType(MediaTypeFactory.getMediaType(fileName).map(MediaType::toString).orElse(null));
+        ResponseEntity.BodyBuilder response = ResponseEntity
+            .ok()
+            .contentType(mediaType)
+            .header(HttpHeaders.CACHE_CONTROL, variantPending ? PENDING_VARIANT_CACHE_CONTROL : IMMUTABLE_CACHE_CONTROL);
+        eTag.ifPresent(response::eTag);
+        if (lastModified >= 0) {
+            response.lastModified(lastModified);
+        }
+        if (SVG_MEDIA_TYPE.equals(mediaType)) {
+            // SVG images uploaded before they were refused may hold scripts, which must not run on the origin of the application
+            response.header(SVG_CONTENT_SECURITY_POLICY_HEADER, "sandbox");
+            response.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString());
         }
-        return ResponseEntity.notFound().build();
+        return response.body(image.get());
     }
 
+    /**
+     * {@code POST  /images/upload-image} : upload an image.
+     *
+     * @param file the image, a PNG, JPEG, GIF or WebP file within {@code application.image-upload.max-bytes}, recognized by its content.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the link of the image in body,
+     * or with status {@code 400 (Bad Request)} if the image is empty, too large or of another type.
+     */
     @PostMapping("/images/upload-image")
     public ResponseEntity<ImageResponse> uploadImage(@RequestParam("file") MultipartFile file) {
         log.debug("REST request to upload image : {}", file);
@@ -70,11 +134,15 @@ public class ImageResource {
 
     private MediaType getImageMediaType(String contentType) {
         if (StringUtils.equals(contentType, "image/svg+xml")) {
-            return new MediaType("image", "svg+xml");
+            return SVG_MEDIA_TYPE;
         } else if (StringUtils.equals(contentType, "image/png")) {
             return MediaType.IMAGE_PNG;
         } else if (StringUtils.equals(contentType, "image/jpeg")) {
             return MediaType.IMAGE_JPEG;
+        } else if (StringUtils.equals(contentType, "image/gif")) {
+            return MediaType.IMAGE_GIF;
+        } else if (StringUtils.equals(contentType, "image/webp")) {
+            return new MediaType("image", "webp");
         } else {
             // Handle unsupported image types or return a default media type
             return MediaType.APPLICATION_OCTET_STREAM;
@@ -0,0 +1,36 @@
+package com.hcmus.chemistry.web.websocket;
+
+import com.hcmus.chemistry.service.event.BlogPostsPublishedEvent;
+import com.hcmus.chemistry.web.websocket.dto.PublicationDTO;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Controller;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Broadcasts the blog posts published by the publication scheduler, so open pages can show them without polling.
+ */
+@Controller
+public class PublicationService {
+
+    public static final String PUBLICATION_TOPIC = "/topic/blog-posts/published";
+
+    private static final Logger log = LoggerFactory.getLogger(PublicationService.class);
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    public PublicationService(SimpMessageSendingOperations messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBlogPostsPublished(BlogPostsPublishedEvent event) {
+        PublicationDTO publicationDTO = new PublicationDTO();
+        publicationDTO.setBlogPostIds(event.getBlogPostIds());
+        publicationDTO.setTime(Instant.now());
+        log.debug("Sending publication data {}", publicationDTO);
+        messagingTemplate.convertAndSend(PUBLICATION_TOPIC, publicationDTO);
+    }
+}
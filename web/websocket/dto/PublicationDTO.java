@@ -0,0 +1,39 @@
+package com.hcmus.chemistry.web.websocket.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO for broadcasting the blog posts which were just published.
+ */
+public class PublicationDTO {
+
+    private List<Long> blogPostIds;
+
+    private Instant time;
+
+    public List<Long> getBlogPostIds() {
+        return blogPostIds;
+    }
+
+    public void setBlogPostIds(List<Long> blogPostIds) {
+        this.blogPostIds = blogPostIds;
+    }
+
+    public Instant getTime() {
+        return time;
+    }
+
+    public void setTime(Instant time) {
+        this.time = time;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PublicationDTO{" +
+            "blogPostIds=" + blogPostIds +
+            ", time='" + time + '\'' +
+            '}';
+    }
+}